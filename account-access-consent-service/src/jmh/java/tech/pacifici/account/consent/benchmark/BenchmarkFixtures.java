@@ -0,0 +1,207 @@
+package tech.pacifici.account.consent.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.pacifici.account.consent.config.ConsentBulkProperties;
+import tech.pacifici.account.consent.config.ConsentCacheProperties;
+import tech.pacifici.account.consent.config.ConsentGroupCommitProperties;
+import tech.pacifici.account.consent.config.ConsentIdempotencyProperties;
+import tech.pacifici.account.consent.config.ConsentInvalidationProperties;
+import tech.pacifici.account.consent.config.ReadRoutingProperties;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+import tech.pacifici.account.consent.repository.AccountAccessConsentRepository;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.account.consent.service.AccountAccessConsentService;
+import tech.pacifici.account.consent.service.ConsentCache;
+import tech.pacifici.account.consent.service.ConsentGroupCommitter;
+import tech.pacifici.account.consent.service.ConsentInvalidationBus;
+import tech.pacifici.account.consent.service.ConsentMapper;
+import tech.pacifici.account.consent.service.ConsentMapperImpl;
+import tech.pacifici.account.consent.service.ConsentMetrics;
+import tech.pacifici.account.consent.service.ConsentReadRouting;
+import tech.pacifici.account.consent.service.IdempotencyStore;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the objects shared by the benchmarks: an offline service wired to an in-memory consent store,
+ * and sample requests.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * An ObjectMapper configured like the one auto-configured by Spring Boot.
+     */
+    static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    /**
+     * A creation request granting the given number of permissions.
+     */
+    static OBWriteDomesticConsent4 createRequest(int permissionCount) {
+        OBWriteDomesticConsent4Data data = new OBWriteDomesticConsent4Data();
+        data.setPermissions(List.of(OBWriteDomesticConsent4Data.PermissionsEnum.values()).subList(0, permissionCount));
+        data.setExpirationDateTime(OffsetDateTime.now().plusYears(1));
+        data.setTransactionFromDateTime(OffsetDateTime.now().minusYears(1));
+        data.setTransactionToDateTime(OffsetDateTime.now().plusYears(1));
+        OBWriteDomesticConsent4 request = new OBWriteDomesticConsent4();
+        request.setData(data);
+        request.setRisk(Map.of());
+        return request;
+    }
+
+    /**
+     * A service whose repositories are backed by an in-memory map instead of PostgreSQL.
+     *
+     * @param cacheSize The size of the consent cache, zero to always go through the repositories.
+     */
+    static AccountAccessConsentService service(InMemoryConsentStore store, long cacheSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConsentCache consentCache = new ConsentCache(new ConsentCacheProperties(cacheSize, Duration.ofMinutes(5)), meterRegistry);
+        ConsentMapper consentMapper = new ConsentMapperImpl();
+        ConsentReadRouting readRouting = new ConsentReadRouting(
+                new ReadRoutingProperties(false, Duration.ofSeconds(5), 1000, List.of()));
+        ConsentInvalidationBus invalidationBus = new ConsentInvalidationBus(
+                new ConsentInvalidationProperties(false, "consent_invalidation", Duration.ofMillis(250), Duration.ofSeconds(5)),
+                consentCache, readRouting, null, null, meterRegistry);
+        return new AccountAccessConsentService(
+                store.repository(),
+                store.queryRepository(consentMapper),
+                consentCache,
+                consentMapper,
+                new TimeOrderedConsentIdGenerator(Clock.systemUTC()),
+                invalidationBus,
+                readRouting,
+                // Benchmarked requests carry no idempotency key, the key table is never queried.
+                new IdempotencyStore(new ConsentIdempotencyProperties(Duration.ofHours(24), 1000, Duration.ofMinutes(5), 1000),
+                        null, meterRegistry),
+                new ConsentGroupCommitter(new ConsentGroupCommitProperties(false, Duration.ofMillis(2), 100, 1000),
+                        null, meterRegistry),
+                store.outboxRepository(),
+                new TransactionTemplate(NoOpTransactionManager.INSTANCE),
+                new ConsentBulkProperties(1000),
+                objectMapper(),
+                new ConsentMetrics(meterRegistry));
+    }
+
+    /**
+     * In-memory stand-in for the consent table, exposed through both repositories.
+     */
+    static final class InMemoryConsentStore {
+
+        private final Map<String, AccountAccessConsent> consents = new ConcurrentHashMap<>();
+
+        /**
+         * A JPA repository proxy supporting the methods called by the service.
+         */
+        AccountAccessConsentRepository repository() {
+            return (AccountAccessConsentRepository) Proxy.newProxyInstance(
+                    AccountAccessConsentRepository.class.getClassLoader(),
+                    new Class<?>[]{AccountAccessConsentRepository.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "save" -> save((AccountAccessConsent) args[0]);
+                        case "saveAll" -> {
+                            List<AccountAccessConsent> saved = new ArrayList<>();
+                            for (Object consent : (Iterable<?>) args[0]) {
+                                saved.add(save((AccountAccessConsent) consent));
+                            }
+                            yield saved;
+                        }
+                        case "findById" -> Optional.ofNullable(consents.get((String) args[0]));
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "InMemoryAccountAccessConsentRepository";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        /**
+         * A query repository reading snapshots from memory instead of running SQL.
+         */
+        ConsentQueryRepository queryRepository(ConsentMapper consentMapper) {
+            return new ConsentQueryRepository(null) {
+                @Override
+                public Optional<ConsentSnapshot> findSnapshotById(String consentId) {
+                    return Optional.ofNullable(consents.get(consentId)).map(consentMapper::toSnapshot);
+                }
+
+                @Override
+                public List<ConsentSnapshot> findSnapshotsByIds(Collection<String> consentIds) {
+                    List<ConsentSnapshot> snapshots = new ArrayList<>();
+                    for (String consentId : consentIds) {
+                        findSnapshotById(consentId).ifPresent(snapshots::add);
+                    }
+                    return snapshots;
+                }
+            };
+        }
+
+        /**
+         * An outbox repository discarding the events, nothing relays them in a benchmark.
+         */
+        ConsentOutboxRepository outboxRepository() {
+            return new ConsentOutboxRepository(null) {
+                @Override
+                public void append(String consentId, String status, OffsetDateTime statusUpdateDateTime) {
+                }
+
+                @Override
+                public void appendCreated(List<AccountAccessConsent> consents) {
+                }
+            };
+        }
+
+        private AccountAccessConsent save(AccountAccessConsent consent) {
+            consents.put(consent.getConsentId(), consent);
+            return consent;
+        }
+    }
+
+    /**
+     * A transaction manager without transactions, the in-memory store has nothing to commit.
+     */
+    private enum NoOpTransactionManager implements PlatformTransactionManager {
+        INSTANCE;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package tech.pacifici.account.consent.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+import tech.pacifici.account.consent.domain.RandomConsentIdGenerator;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+import tech.pacifici.account.consent.service.ConsentMapper;
+import tech.pacifici.account.consent.service.ConsentMapperImpl;
+import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Micro benchmarks for the individual steps behind the consent endpoints: entity and response mapping,
+ * permission and status parsing, consent ID generation with both generators and JSON serialization of the response.
+ * The legacy permission parsing splits the comma separated column the service used to store, and the generated
+ * fromValue scans the enum values, both are kept here as baselines for the bitmask and the lookup tables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsentMappingBenchmark {
+
+    @Param({"1", "5", "15"})
+    private int permissionCount;
+
+    private static final String REQUEST_JSON = "{}";
+
+    private final ConsentMapper consentMapper = new ConsentMapperImpl();
+    private final ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+    private final TimeOrderedConsentIdGenerator timeOrderedIdGenerator =
+            new TimeOrderedConsentIdGenerator(Clock.systemUTC());
+    private final RandomConsentIdGenerator randomIdGenerator = new RandomConsentIdGenerator();
+
+    private OBWriteDomesticConsent4 createRequest;
+    private AccountAccessConsent entity;
+    private ConsentSnapshot snapshot;
+    private OBReadConsentResponse5 response;
+    private String legacyPermissions;
+    private long permissionBits;
+    private String consentId;
+    private OffsetDateTime creationDateTime;
+    private String storedStatus;
+
+    @Setup
+    public void setUp() {
+        createRequest = BenchmarkFixtures.createRequest(permissionCount);
+        Set<PermissionsEnum> permissions = ConsentPermissions.fromRequest(createRequest.getData().getPermissions());
+
+        OffsetDateTime now = OffsetDateTime.now();
+        entity = new AccountAccessConsent();
+        entity.setConsentId(timeOrderedIdGenerator.generate());
+        entity.setStatus("AwaitingAuthorisation");
+        entity.setCreationDateTime(now);
+        entity.setStatusUpdateDateTime(now);
+        entity.setExpirationDateTime(createRequest.getData().getExpirationDateTime());
+        entity.setPermissions(permissions);
+
+        snapshot = consentMapper.toSnapshot(entity);
+        response = consentMapper.toResponse(snapshot);
+        legacyPermissions = permissions.stream().map(PermissionsEnum::getValue).collect(Collectors.joining(","));
+        permissionBits = ConsentPermissions.toBits(permissions);
+        consentId = entity.getConsentId();
+        creationDateTime = now;
+        // The last status, the generated fromValue scans the most values for it.
+        storedStatus = StatusEnum.EXPIRED.getValue();
+    }
+
+    @Benchmark
+    public AccountAccessConsent mapRequestToEntity() {
+        return consentMapper.toEntity(createRequest, consentId, creationDateTime, REQUEST_JSON);
+    }
+
+    @Benchmark
+    public ConsentSnapshot mapEntityToSnapshot() {
+        return consentMapper.toSnapshot(entity);
+    }
+
+    @Benchmark
+    public OBReadConsentResponse5 mapSnapshotToResponse() {
+        return consentMapper.toResponse(snapshot);
+    }
+
+    @Benchmark
+    public EnumSet<PermissionsEnum> parseRequestPermissions() {
+        return ConsentPermissions.fromRequest(createRequest.getData().getPermissions());
+    }
+
+    @Benchmark
+    public List<PermissionsEnum> parseLegacyPermissionString() {
+        return Arrays.stream(legacyPermissions.split(","))
+                .map(PermissionsEnum::fromValue)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public EnumSet<PermissionsEnum> parsePermissionBits() {
+        return ConsentPermissions.fromBits(permissionBits);
+    }
+
+    @Benchmark
+    public List<PermissionsEnum> parsePermissionBitsToList() {
+        return ConsentPermissions.listFromBits(permissionBits);
+    }
+
+    @Benchmark
+    public StatusEnum parseStoredStatus() {
+        return ConsentStatuses.fromValue(storedStatus);
+    }
+
+    @Benchmark
+    public StatusEnum parseStoredStatusWithGeneratedFromValue() {
+        return StatusEnum.fromValue(storedStatus);
+    }
+
+    @Benchmark
+    public String generateTimeOrderedConsentId() {
+        return timeOrderedIdGenerator.generate();
+    }
+
+    @Benchmark
+    public String generateRandomConsentId() {
+        return randomIdGenerator.generate();
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
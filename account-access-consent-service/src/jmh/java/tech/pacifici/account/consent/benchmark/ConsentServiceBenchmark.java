@@ -0,0 +1,65 @@
+package tech.pacifici.account.consent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.pacifici.account.consent.benchmark.BenchmarkFixtures.InMemoryConsentStore;
+import tech.pacifici.account.consent.service.AccountAccessConsentService;
+import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the AccountAccessConsentService end to end, with the database replaced by an in-memory store.
+ * createConsent covers validation, ID generation, request serialization and mapping; the two reads compare
+ * a cache hit with a cache miss that goes through the query repository and the snapshot mapping.
+ * Consents created by the createConsent benchmark accumulate in a store of their own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsentServiceBenchmark {
+
+    private AccountAccessConsentService creatingService;
+    private AccountAccessConsentService cachedService;
+    private AccountAccessConsentService uncachedService;
+    private OBWriteDomesticConsent4 createRequest;
+    private String consentId;
+
+    @Setup
+    public void setUp() {
+        createRequest = BenchmarkFixtures.createRequest(5);
+        creatingService = BenchmarkFixtures.service(new InMemoryConsentStore(), 0);
+
+        InMemoryConsentStore store = new InMemoryConsentStore();
+        cachedService = BenchmarkFixtures.service(store, 10_000);
+        uncachedService = BenchmarkFixtures.service(store, 0);
+        consentId = cachedService.createConsent(createRequest, null).getData().getConsentId();
+    }
+
+    @Benchmark
+    public OBReadConsentResponse5 createConsent() {
+        return creatingService.createConsent(createRequest, null);
+    }
+
+    @Benchmark
+    public OBReadConsentResponse5 getConsentByIdCacheHit() {
+        return cachedService.getConsentById(consentId);
+    }
+
+    @Benchmark
+    public OBReadConsentResponse5 getConsentByIdCacheMiss() {
+        return uncachedService.getConsentById(consentId);
+    }
+}
@@ -0,0 +1,180 @@
+package tech.pacifici.account.consent.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import tech.pacifici.account.consent.domain.ConsentIdGenerator;
+import tech.pacifici.account.consent.domain.RandomConsentIdGenerator;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the consent ID schemes at the storage level: inserts loadtest.id-rows consents (10M by default)
+ * into a fresh copy of the account_access_consents table per scheme, and reports the insert rate overall and over
+ * the last tenth of the rows, along with the size of the primary key index and of the table.
+ * Random IDs spread inserts over the whole primary key index, time-ordered ones append to its right edge.
+ * Results are printed and written to id-storage.json in the report directory.
+ * Skipped when Docker is not available.
+ */
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+class ConsentIdStorageLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    // Rows per JDBC batch, and batches per transaction.
+    private static final int BATCH_SIZE = 1000;
+    private static final int BATCHES_PER_TRANSACTION = 10;
+
+    private static final String REQUEST_BODY =
+            "{\"Data\":{\"Permissions\":[\"ReadAccountsBasic\",\"ReadBalances\"]},\"Risk\":{}}";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse(SETTINGS.postgresImage()).asCompatibleSubstituteFor("postgres"));
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    @Test
+    void randomVersusTimeOrderedIds() throws Exception {
+        // Arrange
+        List<Scheme> schemes = List.of(
+                new Scheme("random", new RandomConsentIdGenerator(), ""),
+                new Scheme("time-ordered", new TimeOrderedConsentIdGenerator(Clock.systemUTC()), ""),
+                new Scheme("time-ordered-c-collation", new TimeOrderedConsentIdGenerator(Clock.systemUTC()),
+                        " COLLATE \"C\""));
+
+        // Act
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (Connection connection = connect()) {
+            for (Scheme scheme : schemes) {
+                results.put(scheme.name(), insertAndMeasure(connection, scheme));
+            }
+        }
+
+        // Assert
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rows", SETTINGS.idRows());
+        report.put("schemes", results);
+        System.out.println(objectMapper.writeValueAsString(report));
+        writeReport(report);
+        for (Object result : results.values()) {
+            assertEquals((long) SETTINGS.idRows(), ((Map<?, ?>) result).get("rowCount"));
+        }
+    }
+
+    private Map<String, Object> insertAndMeasure(Connection connection, Scheme scheme) throws SQLException {
+        String table = "consent_ids_" + scheme.name().replace('-', '_');
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " ("
+                    + "consent_id VARCHAR(255)" + scheme.collation() + " PRIMARY KEY, "
+                    + "status VARCHAR(50) NOT NULL, "
+                    + "creation_date_time TIMESTAMP WITH TIME ZONE NOT NULL, "
+                    + "status_update_date_time TIMESTAMP WITH TIME ZONE NOT NULL, "
+                    + "expiration_date_time TIMESTAMP WITH TIME ZONE, "
+                    + "permissions BIGINT NOT NULL, "
+                    + "request_body JSONB NOT NULL, "
+                    + "version BIGINT NOT NULL DEFAULT 0)");
+        }
+        connection.commit();
+
+        int rows = SETTINGS.idRows();
+        int tailStart = rows - rows / 10;
+        long start = System.nanoTime();
+        long tailStartNanos = start;
+        String sql = "INSERT INTO " + table + " (consent_id, status, creation_date_time, status_update_date_time, "
+                + "expiration_date_time, permissions, request_body) VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            OffsetDateTime now = OffsetDateTime.now();
+            for (int row = 0; row < rows; row++) {
+                if (row == tailStart) {
+                    tailStartNanos = System.nanoTime();
+                }
+                insert.setString(1, scheme.generator().generate());
+                insert.setString(2, "AwaitingAuthorisation");
+                insert.setObject(3, now);
+                insert.setObject(4, now);
+                insert.setObject(5, now.plusDays(90));
+                insert.setLong(6, 0b111L);
+                insert.setString(7, REQUEST_BODY);
+                insert.addBatch();
+                if ((row + 1) % BATCH_SIZE == 0 || row + 1 == rows) {
+                    insert.executeBatch();
+                    if ((row + 1) % (BATCH_SIZE * BATCHES_PER_TRANSACTION) == 0 || row + 1 == rows) {
+                        connection.commit();
+                    }
+                }
+            }
+        }
+        long end = System.nanoTime();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rowCount", count(connection, "SELECT count(*) FROM " + table));
+        result.put("insertsPerSecond", rows / ((end - start) / 1e9));
+        result.put("lastTenthInsertsPerSecond", (rows - tailStart) / ((end - tailStartNanos) / 1e9));
+        result.put("primaryKeyIndexBytes", count(connection, "SELECT pg_relation_size('" + table + "_pkey')"));
+        result.put("tableBytes", count(connection, "SELECT pg_relation_size('" + table + "')"));
+        connection.commit();
+        return result;
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", POSTGRES.getUsername());
+        properties.setProperty("password", POSTGRES.getPassword());
+        properties.setProperty("reWriteBatchedInserts", "true");
+        Connection connection = DriverManager.getConnection(POSTGRES.getJdbcUrl(), properties);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path reportDir = Path.of(SETTINGS.reportDir());
+        Files.createDirectories(reportDir);
+        objectMapper.writeValue(reportDir.resolve("id-storage.json").toFile(), report);
+    }
+
+    /**
+     * A consent ID scheme under test.
+     *
+     * @param name      The name of the scheme in the report.
+     * @param generator The consent ID generator.
+     * @param collation The COLLATE clause of the consent_id column, empty for the database default.
+     */
+    private record Scheme(String name, ConsentIdGenerator generator, String collation) {
+    }
+}
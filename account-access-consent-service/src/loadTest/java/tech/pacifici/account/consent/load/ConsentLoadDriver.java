@@ -0,0 +1,187 @@
+package tech.pacifici.account.consent.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.pacifici.account.consent.load.LatencyRecorder.OperationSummary;
+import tech.pacifici.model.OBReadConsentResponse5;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Drives a weighted create/get/delete mix against the consent API at a fixed concurrency: every client thread
+ * sends one request, waits for the response and immediately sends the next one (closed model).
+ * Gets read one of the most recently created consents, deletes revoke a consent that has not been revoked yet.
+ * When no consent is available yet, the operation falls back to a create.
+ */
+final class ConsentLoadDriver {
+
+    private static final int RECENT_CONSENTS = 65_536;
+    private static final String FINANCIAL_ID = "load-test";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int NO_RESPONSE = -1;
+
+    private final HttpClient httpClient;
+    private final URI consentsUri;
+    private final ObjectMapper objectMapper;
+    private final LoadTestSettings settings;
+    private final byte[] createBody;
+    private final ConsentOperation[] weightedOperations;
+
+    private final AtomicReferenceArray<String> recentConsents = new AtomicReferenceArray<>(RECENT_CONSENTS);
+    private final AtomicLong createdConsents = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> revocableConsents = new ConcurrentLinkedQueue<>();
+
+    ConsentLoadDriver(URI baseUri, ObjectMapper objectMapper, LoadTestSettings settings, byte[] createBody) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.consentsUri = baseUri.resolve("/account-access-consents");
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.createBody = createBody;
+        this.weightedOperations = weightedOperations(settings.mix());
+    }
+
+    /**
+     * Runs the warmup then the measurement window, and summarizes the latencies recorded in the latter.
+     */
+    Map<ConsentOperation, OperationSummary> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long measureUntil = measureFrom + settings.duration().toNanos();
+
+        List<Map<ConsentOperation, LatencyRecorder>> recorders = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            Map<ConsentOperation, LatencyRecorder> threadRecorders = newRecorders();
+            recorders.add(threadRecorders);
+            Thread.ofPlatform().name("load-client-" + i).start(() -> {
+                try {
+                    runClient(threadRecorders, measureFrom, measureUntil);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+
+        Map<ConsentOperation, LatencyRecorder> merged = newRecorders();
+        for (Map<ConsentOperation, LatencyRecorder> threadRecorders : recorders) {
+            threadRecorders.forEach((operation, recorder) -> merged.get(operation).mergeFrom(recorder));
+        }
+        Map<ConsentOperation, OperationSummary> summaries = new EnumMap<>(ConsentOperation.class);
+        merged.forEach((operation, recorder) -> summaries.put(operation, recorder.summarize(measureUntil - measureFrom)));
+        return summaries;
+    }
+
+    private void runClient(Map<ConsentOperation, LatencyRecorder> recorders, long measureFrom, long measureUntil) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.nanoTime();
+        while (now < measureUntil) {
+            ConsentOperation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            HttpRequest request = nextRequest(operation, random);
+            if (request == null) {
+                operation = ConsentOperation.CREATE;
+                request = createRequest();
+            }
+            int status = send(operation, request);
+            long end = System.nanoTime();
+            if (now >= measureFrom) {
+                LatencyRecorder recorder = recorders.get(operation);
+                recorder.record(end - now);
+                if (status == TOO_MANY_REQUESTS) {
+                    recorder.recordRejection();
+                } else if (status >= 400 || status == NO_RESPONSE) {
+                    recorder.recordError();
+                }
+            }
+            now = end;
+        }
+    }
+
+    private HttpRequest nextRequest(ConsentOperation operation, ThreadLocalRandom random) {
+        return switch (operation) {
+            case CREATE -> createRequest();
+            case GET -> {
+                long created = createdConsents.get();
+                if (created == 0) {
+                    yield null;
+                }
+                String consentId = recentConsents.get(random.nextInt((int) Math.min(created, RECENT_CONSENTS)));
+                yield consentId == null ? null : consentRequest(consentId).GET().build();
+            }
+            case DELETE -> {
+                String consentId = revocableConsents.poll();
+                yield consentId == null ? null : consentRequest(consentId).DELETE().build();
+            }
+        };
+    }
+
+    private HttpRequest createRequest() {
+        return HttpRequest.newBuilder(consentsUri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(createBody))
+                .build();
+    }
+
+    private HttpRequest.Builder consentRequest(String consentId) {
+        return HttpRequest.newBuilder(URI.create(consentsUri + "/" + consentId))
+                .header("Accept", "application/json")
+                .header("x-fapi-financial-id", FINANCIAL_ID);
+    }
+
+    /**
+     * Sends the request and returns the response status, or -1 when no response was received.
+     */
+    private int send(ConsentOperation operation, HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (operation == ConsentOperation.CREATE && response.statusCode() == 201) {
+                String consentId = objectMapper.readValue(response.body(), OBReadConsentResponse5.class)
+                        .getData().getConsentId();
+                long index = createdConsents.getAndIncrement();
+                recentConsents.set((int) (index % RECENT_CONSENTS), consentId);
+                revocableConsents.offer(consentId);
+            }
+            return response.statusCode();
+        } catch (IOException e) {
+            return NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return NO_RESPONSE;
+        }
+    }
+
+    private static Map<ConsentOperation, LatencyRecorder> newRecorders() {
+        Map<ConsentOperation, LatencyRecorder> recorders = new EnumMap<>(ConsentOperation.class);
+        for (ConsentOperation operation : ConsentOperation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    private static ConsentOperation[] weightedOperations(Map<ConsentOperation, Integer> mix) {
+        List<ConsentOperation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        return operations.toArray(ConsentOperation[]::new);
+    }
+}
@@ -0,0 +1,135 @@
+package tech.pacifici.account.consent.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import tech.pacifici.account.consent.load.LatencyRecorder.OperationSummary;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test booting the full AccountAccessConsentApplication against a PostgreSQL container, and driving a
+ * create/get/delete mix through HTTP at a fixed concurrency.
+ * Prints p50/p99/p999 latencies and throughput per operation, along with the Hikari connection acquisition times
+ * used to size the pool, and writes them to results.json in the report directory.
+ * Skipped when Docker is not available.
+ */
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.show-sql=false",
+                "logging.level.org.springframework.web=INFO",
+                "logging.level.org.hibernate.SQL=INFO"
+        })
+class ConsentLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse(SETTINGS.postgresImage()).asCompatibleSubstituteFor("postgres"));
+
+    // Set through properties rather than a service connection, the invalidation listener opens its own
+    // connection from the spring.datasource properties.
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Test
+    void createGetDeleteMix() throws Exception {
+        // Arrange
+        ConsentLoadDriver driver = new ConsentLoadDriver(
+                URI.create("http://localhost:" + port), objectMapper, SETTINGS, createBody());
+
+        // Act
+        Map<ConsentOperation, OperationSummary> summaries = driver.run();
+
+        // Assert
+        Map<String, Object> report = report(summaries);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        writeReport(report);
+        assertTrue(summaries.get(ConsentOperation.CREATE).requests() > 0);
+        summaries.forEach((operation, summary) -> assertEquals(0, summary.errors(), operation + " requests failed"));
+    }
+
+    private byte[] createBody() throws IOException {
+        OBWriteDomesticConsent4Data data = new OBWriteDomesticConsent4Data();
+        data.setPermissions(List.of(
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_ACCOUNTS_BASIC,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_BALANCES,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_TRANSACTIONS_DETAIL));
+        data.setExpirationDateTime(OffsetDateTime.now().plusYears(1));
+        data.setTransactionFromDateTime(OffsetDateTime.now().minusYears(1));
+        data.setTransactionToDateTime(OffsetDateTime.now().plusYears(1));
+        OBWriteDomesticConsent4 request = new OBWriteDomesticConsent4();
+        request.setData(data);
+        request.setRisk(Map.of());
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    private Map<String, Object> report(Map<ConsentOperation, OperationSummary> summaries) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", Map.of(
+                "concurrency", SETTINGS.concurrency(),
+                "warmup", SETTINGS.warmup().toString(),
+                "duration", SETTINGS.duration().toString(),
+                "mix", SETTINGS.mix(),
+                "hikariMaximumPoolSize", maximumPoolSize));
+        report.put("operations", summaries);
+        report.put("totalThroughput", summaries.values().stream().mapToDouble(OperationSummary::throughput).sum());
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            report.put("hikariAcquireMeanMillis", acquire.mean(TimeUnit.MILLISECONDS));
+            report.put("hikariAcquireMaxMillis", acquire.max(TimeUnit.MILLISECONDS));
+        }
+        return report;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path reportDir = Path.of(SETTINGS.reportDir());
+        Files.createDirectories(reportDir);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("results.json").toFile(), report);
+    }
+}
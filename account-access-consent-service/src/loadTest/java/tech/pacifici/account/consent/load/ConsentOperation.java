@@ -0,0 +1,10 @@
+package tech.pacifici.account.consent.load;
+
+/**
+ * The operations driven by the load test.
+ */
+enum ConsentOperation {
+    CREATE,
+    GET,
+    DELETE
+}
@@ -0,0 +1,213 @@
+package tech.pacifici.account.consent.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.load.LatencyRecorder.OperationSummary;
+import tech.pacifici.account.consent.repository.AccountAccessConsentRepository;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.account.consent.service.AccountAccessConsentService;
+import tech.pacifici.account.consent.service.ConsentMapper;
+import tech.pacifici.model.OBConsentBulkResult;
+import tech.pacifici.model.OBWriteConsentBulkRequest;
+import tech.pacifici.model.OBWriteConsentBulkRequestData;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of the two ways a consent is read on a cache miss, against a PostgreSQL container:
+ * the JPA entity loaded with findById and mapped to a snapshot, the read path before the projection query,
+ * and the ConsentQueryRepository projection query mapping the row straight to a snapshot.
+ * Seeds loadtest.read-path-rows consents, then reads loadtest.read-path-reads random consents per path on one thread,
+ * in alternating rounds so that both paths see the same database and JIT state, and reports the latencies and the
+ * bytes allocated per read, driver included.
+ * Results are printed and written to read-path.json in the report directory.
+ * Skipped when Docker is not available.
+ */
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.jpa.show-sql=false",
+                "logging.level.org.hibernate.SQL=INFO",
+                "consent.expiry.enabled=false",
+                "consent.outbox.enabled=false"
+        })
+class ConsentReadPathLoadTest {
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+
+    // Reads per path before switching to the other one.
+    private static final int ROUND_READS = 1000;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse(SETTINGS.postgresImage()).asCompatibleSubstituteFor("postgres"));
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private AccountAccessConsentService service;
+
+    @Autowired
+    private AccountAccessConsentRepository repository;
+
+    @Autowired
+    private ConsentQueryRepository queryRepository;
+
+    @Autowired
+    private ConsentMapper consentMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void entityVersusProjection() throws Exception {
+        // Arrange
+        List<String> consentIds = seed();
+        List<ReadPath> paths = List.of(
+                new ReadPath("entity", id -> repository.findById(id).map(consentMapper::toSnapshot).orElseThrow()),
+                new ReadPath("projection", id -> queryRepository.findSnapshotById(id).orElseThrow()));
+        String sample = consentIds.get(0);
+        ConsentSnapshot fromEntity = paths.get(0).read().apply(sample);
+        ConsentSnapshot fromProjection = paths.get(1).read().apply(sample);
+
+        // Act
+        long warmupEnd = System.nanoTime() + SETTINGS.warmup().toNanos();
+        while (System.nanoTime() < warmupEnd) {
+            for (ReadPath path : paths) {
+                measureRound(path, consentIds, new LatencyRecorder());
+            }
+        }
+        Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+        Map<String, long[]> allocatedAndElapsed = new LinkedHashMap<>();
+        for (ReadPath path : paths) {
+            latencies.put(path.name(), new LatencyRecorder());
+            allocatedAndElapsed.put(path.name(), new long[2]);
+        }
+        for (int round = 0; round < SETTINGS.readPathReads() / ROUND_READS; round++) {
+            for (ReadPath path : paths) {
+                long[] totals = allocatedAndElapsed.get(path.name());
+                long start = System.nanoTime();
+                totals[0] += measureRound(path, consentIds, latencies.get(path.name()));
+                totals[1] += System.nanoTime() - start;
+            }
+        }
+
+        // Assert
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (ReadPath path : paths) {
+            long[] totals = allocatedAndElapsed.get(path.name());
+            OperationSummary summary = latencies.get(path.name()).summarize(totals[1]);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("latency", summary);
+            result.put("allocatedBytesPerRead", totals[0] / Math.max(summary.requests(), 1));
+            results.put(path.name(), result);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rows", consentIds.size());
+        report.put("readsPerPath", SETTINGS.readPathReads() / ROUND_READS * ROUND_READS);
+        report.put("paths", results);
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        writeReport(report);
+        assertEquals(fromEntity.consentId(), fromProjection.consentId());
+        assertEquals(fromEntity.status(), fromProjection.status());
+        assertEquals(fromEntity.permissions(), fromProjection.permissions());
+        assertEquals(fromEntity.version(), fromProjection.version());
+    }
+
+    /**
+     * Reads a round of random consents with the given path.
+     *
+     * @return The bytes allocated by the reads.
+     */
+    private long measureRound(ReadPath path, List<String> consentIds, LatencyRecorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        for (int read = 0; read < ROUND_READS; read++) {
+            String consentId = consentIds.get(random.nextInt(consentIds.size()));
+            long start = System.nanoTime();
+            path.read().apply(consentId);
+            recorder.record(System.nanoTime() - start);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    }
+
+    private List<String> seed() {
+        OBWriteDomesticConsent4 request = createRequest();
+        int batchSize = 1000;
+        List<String> consentIds = new ArrayList<>(SETTINGS.readPathRows());
+        while (consentIds.size() < SETTINGS.readPathRows()) {
+            int size = Math.min(batchSize, SETTINGS.readPathRows() - consentIds.size());
+            OBWriteConsentBulkRequest bulk = new OBWriteConsentBulkRequest(
+                    new OBWriteConsentBulkRequestData(Collections.nCopies(size, request)));
+            for (OBConsentBulkResult result : service.createConsents(bulk).getData().getResults()) {
+                consentIds.add(result.getConsentId());
+            }
+        }
+        return consentIds;
+    }
+
+    private static OBWriteDomesticConsent4 createRequest() {
+        OBWriteDomesticConsent4Data data = new OBWriteDomesticConsent4Data();
+        data.setPermissions(List.of(
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_ACCOUNTS_BASIC,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_BALANCES,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_TRANSACTIONS_DETAIL));
+        data.setExpirationDateTime(OffsetDateTime.now().plusYears(1));
+        data.setTransactionFromDateTime(OffsetDateTime.now().minusYears(1));
+        data.setTransactionToDateTime(OffsetDateTime.now().plusYears(1));
+        OBWriteDomesticConsent4 request = new OBWriteDomesticConsent4();
+        request.setData(data);
+        request.setRisk(Map.of());
+        return request;
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path reportDir = Path.of(SETTINGS.reportDir());
+        Files.createDirectories(reportDir);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("read-path.json").toFile(), report);
+    }
+
+    /**
+     * A way of reading a consent under test.
+     *
+     * @param name The name of the path in the report.
+     * @param read Reads the consent with the given ID.
+     */
+    private record ReadPath(String name, Function<String, ConsentSnapshot> read) {
+    }
+}
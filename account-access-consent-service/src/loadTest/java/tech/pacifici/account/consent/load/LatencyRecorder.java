@@ -0,0 +1,77 @@
+package tech.pacifici.account.consent.load;
+
+import java.util.Arrays;
+
+/**
+ * Records request latencies in nanoseconds. Each client thread owns its recorders, which are merged once the run
+ * is over, so recording is a plain array write.
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    private int rejections;
+
+    void record(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    void recordError() {
+        errors++;
+    }
+
+    void recordRejection() {
+        rejections++;
+    }
+
+    void mergeFrom(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.latencies[i]);
+        }
+        errors += other.errors;
+        rejections += other.rejections;
+    }
+
+    /**
+     * Summarizes the recorded latencies.
+     *
+     * @param elapsedNanos The length of the measurement window, used for the throughput.
+     */
+    OperationSummary summarize(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new OperationSummary(
+                count,
+                errors,
+                rejections,
+                count * 1_000_000_000d / elapsedNanos,
+                toMillis(percentile(sorted, 0.50)),
+                toMillis(percentile(sorted, 0.99)),
+                toMillis(percentile(sorted, 0.999)),
+                toMillis(count == 0 ? 0 : sorted[count - 1]));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    /**
+     * Latency percentiles in milliseconds and throughput in requests per second of one operation.
+     * Rejections are the requests answered with a 429 by the admission limiter, they are not counted as errors.
+     */
+    record OperationSummary(int requests, int errors, int rejections, double throughput,
+                            double p50, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,63 @@
+package tech.pacifici.account.consent.load;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from the loadtest.* system properties passed in by the loadTest Gradle task.
+ *
+ * @param concurrency   The number of client threads, each sending one request at a time.
+ * @param warmup        How long to run before recording latencies.
+ * @param duration      How long to record latencies for, after the warmup.
+ * @param mix           The relative weight of each operation.
+ * @param postgresImage The PostgreSQL container image.
+ * @param reportDir     The directory the JSON report is written to.
+ * @param idRows        The number of rows inserted per consent ID scheme by the ID storage benchmark.
+ * @param readPathRows  The number of consents seeded by the read path benchmark.
+ * @param readPathReads The number of consents read per read path by the read path benchmark.
+ */
+record LoadTestSettings(int concurrency,
+                        Duration warmup,
+                        Duration duration,
+                        Map<ConsentOperation, Integer> mix,
+                        String postgresImage,
+                        String reportDir,
+                        int idRows,
+                        int readPathRows,
+                        int readPathReads) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.parseInt(System.getProperty("loadtest.concurrency", "32")),
+                Duration.parse("PT" + System.getProperty("loadtest.warmup", "15s")),
+                Duration.parse("PT" + System.getProperty("loadtest.duration", "60s")),
+                parseMix(System.getProperty("loadtest.mix", "create=20,get=70,delete=10")),
+                System.getProperty("loadtest.postgres-image", "postgres:16-alpine"),
+                System.getProperty("loadtest.report-dir", "build/reports/load-test"),
+                Integer.parseInt(System.getProperty("loadtest.id-rows", "10000000")),
+                Integer.parseInt(System.getProperty("loadtest.read-path-rows", "100000")),
+                Integer.parseInt(System.getProperty("loadtest.read-path-reads", "50000")));
+    }
+
+    /**
+     * Parses an operation mix such as "create=20,get=70,delete=10". Missing operations get a weight of zero.
+     */
+    static Map<ConsentOperation, Integer> parseMix(String mix) {
+        Map<ConsentOperation, Integer> weights = new EnumMap<>(ConsentOperation.class);
+        for (ConsentOperation operation : ConsentOperation.values()) {
+            weights.put(operation, 0);
+        }
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load test mix entry: " + entry);
+            }
+            weights.put(ConsentOperation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The load test mix must have a positive total weight: " + mix);
+        }
+        return weights;
+    }
+}
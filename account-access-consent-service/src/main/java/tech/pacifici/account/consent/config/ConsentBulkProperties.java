@@ -0,0 +1,14 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the bulk consent endpoints.
+ *
+ * @param maxItems The maximum number of items accepted in a single bulk request.
+ */
+@ConfigurationProperties(prefix = "consent.bulk")
+public record ConsentBulkProperties(
+        @DefaultValue("1000") int maxItems) {
+}
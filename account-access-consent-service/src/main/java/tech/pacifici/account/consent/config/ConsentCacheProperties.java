@@ -0,0 +1,18 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-process consent cache.
+ *
+ * @param maximumSize The maximum number of consents kept in memory. Zero disables caching.
+ * @param timeToLive  How long a consent is kept after it has been loaded or written.
+ */
+@ConfigurationProperties(prefix = "consent.cache")
+public record ConsentCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("5m") Duration timeToLive) {
+}
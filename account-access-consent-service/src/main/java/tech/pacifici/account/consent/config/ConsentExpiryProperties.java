@@ -0,0 +1,26 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the consent expiry sweeper.
+ *
+ * @param enabled          Whether the sweeper runs on this replica.
+ * @param interval         The delay between the end of a sweep and the start of the next one.
+ * @param batchSize        The number of consents updated or deleted by a single statement.
+ * @param maxBatches       The maximum number of batches per sweep, so that a backlog is worked off over several sweeps.
+ * @param purgeEnabled     Whether consents in a final status are deleted once past the retention period.
+ * @param purgeRetention   How long consents stay in the table after reaching a final status.
+ */
+@ConfigurationProperties(prefix = "consent.expiry")
+public record ConsentExpiryProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("30s") Duration interval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("20") int maxBatches,
+        @DefaultValue("false") boolean purgeEnabled,
+        @DefaultValue("90d") Duration purgeRetention) {
+}
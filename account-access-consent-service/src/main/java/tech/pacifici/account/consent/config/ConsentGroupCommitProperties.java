@@ -0,0 +1,27 @@
+package tech.pacifici.account.consent.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the group commit of consent creations.
+ *
+ * @param enabled       Whether single consent creations are grouped, otherwise each one commits on its own.
+ * @param window        How long a batch waits for more creations after the first one was queued.
+ * @param maxBatchSize  The maximum number of consents inserted by one statement, a full batch is flushed at once.
+ *                      At most 8191: each consent binds 8 parameters, PostgreSQL takes 65535 per statement.
+ * @param queueCapacity The maximum number of queued creations, further ones are rejected with a 429.
+ */
+@Validated
+@ConfigurationProperties(prefix = "consent.group-commit")
+public record ConsentGroupCommitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("2ms") Duration window,
+        @DefaultValue("100") @Min(1) @Max(8191) int maxBatchSize,
+        @DefaultValue("10000") int queueCapacity) {
+}
@@ -0,0 +1,30 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.pacifici.account.consent.domain.ConsentIdGenerator;
+import tech.pacifici.account.consent.domain.RandomConsentIdGenerator;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+
+import java.time.Clock;
+
+/**
+ * Selects the {@link ConsentIdGenerator} with the consent.id.generator property: time-ordered (the default)
+ * or random. Both produce IDs of the same format, so existing consents are unaffected by a change.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ConsentIdConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "consent.id", name = "generator", havingValue = "time-ordered", matchIfMissing = true)
+    ConsentIdGenerator timeOrderedConsentIdGenerator() {
+        return new TimeOrderedConsentIdGenerator(Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "consent.id", name = "generator", havingValue = "random")
+    ConsentIdGenerator randomConsentIdGenerator() {
+        return new RandomConsentIdGenerator();
+    }
+}
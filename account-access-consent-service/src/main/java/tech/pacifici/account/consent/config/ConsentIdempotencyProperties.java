@@ -0,0 +1,22 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the idempotency keys of consent creation requests.
+ *
+ * @param timeToLive     How long a key is remembered, requests repeated later create a new consent.
+ * @param maximumSize    The maximum number of keys kept in memory in front of the database table.
+ * @param purgeInterval  The delay between two purges of the keys past their time to live.
+ * @param purgeBatchSize The maximum number of keys deleted by a single statement.
+ */
+@ConfigurationProperties(prefix = "consent.idempotency")
+public record ConsentIdempotencyProperties(
+        @DefaultValue("24h") Duration timeToLive,
+        @DefaultValue("100000") long maximumSize,
+        @DefaultValue("5m") Duration purgeInterval,
+        @DefaultValue("1000") int purgeBatchSize) {
+}
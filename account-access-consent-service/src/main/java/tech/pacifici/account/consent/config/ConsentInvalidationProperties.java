@@ -0,0 +1,22 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the cross-node consent cache invalidation bus.
+ *
+ * @param enabled        Whether invalidations are published and listened for through PostgreSQL NOTIFY.
+ * @param channel        The PostgreSQL notification channel shared by every replica.
+ * @param pollTimeout    How long the listener waits for notifications before polling again.
+ * @param reconnectDelay How long the listener waits before reconnecting after losing its connection.
+ */
+@ConfigurationProperties(prefix = "consent.cache.invalidation")
+public record ConsentInvalidationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("consent_invalidation") String channel,
+        @DefaultValue("250ms") Duration pollTimeout,
+        @DefaultValue("5s") Duration reconnectDelay) {
+}
@@ -0,0 +1,18 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration properties for the consent list endpoint.
+ *
+ * @param defaultPageSize The page size when the request does not give one.
+ * @param maxPageSize     The largest page size a request can ask for.
+ * @param fetchSize       The number of rows fetched from the database at a time while a page is streamed.
+ */
+@ConfigurationProperties(prefix = "consent.list")
+public record ConsentListProperties(
+        @DefaultValue("100") int defaultPageSize,
+        @DefaultValue("1000") int maxPageSize,
+        @DefaultValue("100") int fetchSize) {
+}
@@ -0,0 +1,29 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the relay of the consent outbox, and the consent event stream it feeds.
+ *
+ * @param enabled           Whether the relay runs on this replica. Events are written to the outbox either way.
+ * @param interval          The delay between the end of a relay run and the start of the next one.
+ * @param batchSize         The maximum number of events locked, delivered and marked delivered together, also the
+ *                          number of events read at once by the event streams.
+ * @param maxBatches        The maximum number of batches per run, so that a backlog is worked off over several runs.
+ * @param retention         How long delivered events are kept, the window in which stream subscribers can resume.
+ * @param maxSubscribers    The maximum number of event stream subscribers of this replica.
+ * @param subscriberTimeout How long an event stream stays open before the subscriber has to reconnect.
+ */
+@ConfigurationProperties(prefix = "consent.outbox")
+public record ConsentOutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("500ms") Duration interval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("20") int maxBatches,
+        @DefaultValue("24h") Duration retention,
+        @DefaultValue("1000") int maxSubscribers,
+        @DefaultValue("5m") Duration subscriberTimeout) {
+}
@@ -0,0 +1,26 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the maintenance of the monthly partitions of the consent table.
+ *
+ * @param enabled      Whether partitions are maintained by this service, disable when an external tool does it.
+ * @param interval     The delay between two maintenance runs.
+ * @param monthsAhead  The number of months after the current one to create partitions for.
+ * @param dropEnabled  Whether partitions holding only consents in a final status past the retention are dropped.
+ * @param retention    How long consents stay in their partition after reaching a final status.
+ * @param lockTimeout  How long partition DDL waits for its locks before giving up until the next run.
+ */
+@ConfigurationProperties(prefix = "consent.partition")
+public record ConsentPartitionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1h") Duration interval,
+        @DefaultValue("3") int monthsAhead,
+        @DefaultValue("false") boolean dropEnabled,
+        @DefaultValue("90d") Duration retention,
+        @DefaultValue("2s") Duration lockTimeout) {
+}
@@ -0,0 +1,44 @@
+package tech.pacifici.account.consent.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.pacifici.account.consent.repository.AdmissionLimitingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Wraps the application DataSource in an {@link AdmissionLimitingDataSource}, so that every repository access,
+ * JPA or JDBC, goes through the same admission limiter, with separate permits for requests and background work.
+ * DataSources already limited per pool, such as the one of the {@link ReadRoutingConfiguration}, are left alone.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "consent.db.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseAdmissionConfiguration {
+
+    @Bean
+    static BeanPostProcessor admissionLimitingDataSourcePostProcessor(
+            ObjectProvider<DatabaseAdmissionProperties> properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !isAdmissionLimited(dataSource)) {
+                    return new AdmissionLimitingDataSource(dataSource, properties.getObject(), meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static boolean isAdmissionLimited(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(AdmissionLimitingDataSource.class);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+}
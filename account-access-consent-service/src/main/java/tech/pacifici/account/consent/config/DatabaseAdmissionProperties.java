@@ -0,0 +1,22 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the admission limiter in front of the connection pool.
+ *
+ * @param enabled           Whether database access is admission controlled.
+ * @param maxConcurrent     The number of connections that may be checked out at once, at most the pool size.
+ * @param backgroundPermits The number of those connections kept for the work done outside HTTP requests.
+ * @param acquireTimeout    How long a caller waits for a permit before being rejected with a 429.
+ */
+@ConfigurationProperties(prefix = "consent.db.admission")
+public record DatabaseAdmissionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") int maxConcurrent,
+        @DefaultValue("4") int backgroundPermits,
+        @DefaultValue("25ms") Duration acquireTimeout) {
+}
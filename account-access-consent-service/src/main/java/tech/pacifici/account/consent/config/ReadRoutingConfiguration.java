@@ -0,0 +1,93 @@
+package tech.pacifici.account.consent.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.pacifici.account.consent.repository.AdmissionLimitingDataSource;
+import tech.pacifici.account.consent.repository.ReadRoutingDataSource;
+import tech.pacifici.account.consent.repository.ReadRoutingJpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the application DataSource with a {@link ReadRoutingDataSource} over the spring.datasource primary
+ * and the consent.read-routing.replicas, and the transaction manager with a {@link ReadRoutingJpaTransactionManager}
+ * so that read-only transactions are routed to the replicas.
+ * Replica pools are configured like the primary one (spring.datasource.hikari), except for their URL, credentials
+ * and size. When admission control is enabled every pool gets its own limiter, sized to the pool, so that a burst
+ * of reads is never rejected because of writes and the other way round. Background work never runs read-only
+ * transactions and stays on the primary, so the replica limiters keep no permit for it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "consent.read-routing", name = "enabled", havingValue = "true")
+public class ReadRoutingConfiguration implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    DataSource dataSource(DataSourceProperties dataSourceProperties, ReadRoutingProperties properties,
+                          DatabaseAdmissionProperties admissionProperties, Environment environment,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        pools.add(primary);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReadRoutingProperties.Replica replicaProperties : properties.replicas()) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(replicaProperties.url());
+            if (replicaProperties.username() != null) {
+                replica.setUsername(replicaProperties.username());
+            }
+            if (replicaProperties.password() != null) {
+                replica.setPassword(replicaProperties.password());
+            }
+            replica.setMaximumPoolSize(replicaProperties.maximumPoolSize());
+            replica.setMinimumIdle(Math.min(primary.getMinimumIdle(), replicaProperties.maximumPoolSize()));
+            // The pool metrics of the primary are bound through the DataSource bean, the replicas bind their own.
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry.getObject()));
+            pools.add(replica);
+            replicas.add(admissionProperties.enabled()
+                    ? new AdmissionLimitingDataSource(replica, new DatabaseAdmissionProperties(true,
+                    replicaProperties.maximumPoolSize(), 0, admissionProperties.acquireTimeout()),
+                    meterRegistry.getObject(), replica.getPoolName())
+                    : replica);
+        }
+
+        DataSource limitedPrimary = admissionProperties.enabled()
+                ? new AdmissionLimitingDataSource(primary, admissionProperties, meterRegistry.getObject())
+                : primary;
+        return new ReadRoutingDataSource(limitedPrimary, replicas);
+    }
+
+    @Bean
+    PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new ReadRoutingJpaTransactionManager();
+        customizers.ifAvailable(transactionManagerCustomizers -> transactionManagerCustomizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,39 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration properties for the routing of read-only transactions to read replicas.
+ *
+ * @param enabled         Whether read-only transactions are sent to the replicas.
+ * @param stickyWindow    How long reads of a consent stay on the primary after it was written, at least the
+ *                        replication lag.
+ * @param maximumTracked  The maximum number of recently written consents remembered by each replica of the service.
+ * @param replicas        The read replicas.
+ */
+@ConfigurationProperties(prefix = "consent.read-routing")
+public record ReadRoutingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5s") Duration stickyWindow,
+        @DefaultValue("100000") long maximumTracked,
+        @DefaultValue List<Replica> replicas) {
+
+    /**
+     * A read replica, connected to with its own pool configured like the primary one.
+     *
+     * @param url             The JDBC URL of the replica.
+     * @param username        The user name, or null for the one of the primary.
+     * @param password        The password, or null for the one of the primary.
+     * @param maximumPoolSize The size of the connection pool of the replica.
+     */
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            @DefaultValue("20") int maximumPoolSize) {
+    }
+}
@@ -0,0 +1,21 @@
+package tech.pacifici.account.consent.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.pacifici.account.consent.repository.SlowQueryLogger;
+
+/**
+ * Registers the {@link SlowQueryLogger} with the DataSource proxy of datasource-micrometer, which picks up every
+ * QueryExecutionListener bean.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "consent.slow-query", name = "enabled", havingValue = "true")
+public class SlowQueryConfiguration {
+
+    @Bean
+    SlowQueryLogger slowQueryLogger(SlowQueryProperties properties, MeterRegistry meterRegistry) {
+        return new SlowQueryLogger(properties, meterRegistry);
+    }
+}
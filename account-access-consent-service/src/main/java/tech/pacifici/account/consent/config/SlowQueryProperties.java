@@ -0,0 +1,22 @@
+package tech.pacifici.account.consent.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the logging of slow SQL statements.
+ *
+ * @param enabled        Whether slow statements are logged.
+ * @param threshold      The execution time from which a statement is slow.
+ * @param sampleRate     The fraction of the slow statements that is logged, between 0 and 1. All are counted.
+ * @param maxQueryLength The number of characters of a statement that are logged, longer ones are truncated.
+ */
+@ConfigurationProperties(prefix = "consent.slow-query")
+public record SlowQueryProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("100ms") Duration threshold,
+        @DefaultValue("1.0") double sampleRate,
+        @DefaultValue("2000") int maxQueryLength) {
+}
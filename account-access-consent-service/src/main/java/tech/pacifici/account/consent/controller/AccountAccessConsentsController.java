@@ -1,17 +1,34 @@
 package tech.pacifici.account.consent.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tech.pacifici.api.AccountAccessConsentsApi;
+import tech.pacifici.account.consent.domain.ConsentListQuery;
+import tech.pacifici.account.consent.domain.ConsentValidity;
 import tech.pacifici.account.consent.domain.InvalidRequestException;
 import tech.pacifici.account.consent.service.AccountAccessConsentService;
+import tech.pacifici.account.consent.service.ConsentEventBroadcaster;
+import tech.pacifici.account.consent.service.ConsentListService;
+import tech.pacifici.account.consent.service.ConsentMetrics;
+import tech.pacifici.model.OBConsentBulkResponse;
+import tech.pacifici.model.OBConsentValidationBulkRequest;
+import tech.pacifici.model.OBConsentValidationBulkResponse;
+import tech.pacifici.model.OBConsentValidationResponse;
+import tech.pacifici.model.OBReadConsentBulkRequest;
 import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBWriteConsentBulkRequest;
+import tech.pacifici.model.OBWriteConsentStatusRequest;
 import tech.pacifici.model.OBWriteDomesticConsent4;
 
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
@@ -28,6 +45,9 @@ import java.util.Optional;
 public class AccountAccessConsentsController implements AccountAccessConsentsApi {
 
     private final AccountAccessConsentService service;
+    private final ConsentListService listService;
+    private final ConsentMetrics metrics;
+    private final ConsentEventBroadcaster eventBroadcaster;
 
     @Override
     public Optional<NativeWebRequest> getRequest() {
@@ -37,17 +57,18 @@ public class AccountAccessConsentsController implements AccountAccessConsentsApi
     /**
      * Handles the POST /account-access-consents endpoint to create a new consent.
      * @param obWriteDomesticConsent4 The request body for the new consent.
-     * @return A ResponseEntity containing the created consent and HTTP status 201.
+     * @param xIdempotencyKey The idempotency key header (optional).
+     * @return A ResponseEntity containing the created consent and HTTP status 201, also when the request is a replay.
      */
     @Override
-    public ResponseEntity<OBReadConsentResponse5> createAccountAccessConsents(OBWriteDomesticConsent4 obWriteDomesticConsent4) {
+    public ResponseEntity<OBReadConsentResponse5> createAccountAccessConsents(OBWriteDomesticConsent4 obWriteDomesticConsent4, String xIdempotencyKey) {
         // The service layer now handles validation and throws an exception on invalid requests.
-        OBReadConsentResponse5 createdConsent = service.createConsent(obWriteDomesticConsent4);
+        OBReadConsentResponse5 createdConsent = service.createConsent(obWriteDomesticConsent4, xIdempotencyKey);
         return new ResponseEntity<>(createdConsent, HttpStatus.CREATED);
     }
 
     /**
-     * Handles the DELETE /account-access-consents/{ConsentId} endpoint to delete a consent.
+     * Handles the DELETE /account-access-consents/{ConsentId} endpoint to revoke a consent.
      * @param consentId The ID of the consent to delete.
      * @param xFapiFinancialId The financial ID header (required by the API).
      * @param xFapiInteractionId The interaction ID header (optional).
@@ -72,6 +93,111 @@ public class AccountAccessConsentsController implements AccountAccessConsentsApi
         return new ResponseEntity<>(consent, HttpStatus.OK);
     }
 
+    /**
+     * Handles the GET /account-access-consents/{ConsentId}/validation endpoint to check a consent.
+     * The response carries the ETag of the outcome and must be revalidated before reuse. There is no Last-Modified:
+     * its one second resolution would answer If-Modified-Since with 304 after a revocation within the same second.
+     * Spring MVC answers a matching If-None-Match with 304 Not Modified and no body.
+     * @param consentId The ID of the consent to check.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @param permission The permission the consent must grant (optional).
+     * @return A ResponseEntity containing the outcome and HTTP status 200, 304 if unchanged, or 404 if not found.
+     */
+    @Override
+    public ResponseEntity<OBConsentValidationResponse> getAccountAccessConsentsConsentIdValidation(String consentId, String xFapiFinancialId, String xFapiInteractionId, String permission) {
+        ConsentValidity validity = service.validateConsent(consentId, permission);
+        return ResponseEntity.ok()
+                .eTag(validity.entityTag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(new OBConsentValidationResponse(validity.validation()));
+    }
+
+    /**
+     * Handles the PUT /account-access-consents/{ConsentId}/status endpoint to change the status of a consent.
+     * @param consentId The ID of the consent to update.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param obWriteConsentStatusRequest The request body containing the new status.
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @return A ResponseEntity containing the updated consent and HTTP status 200, or 409 if the change is not allowed.
+     */
+    @Override
+    public ResponseEntity<OBReadConsentResponse5> updateAccountAccessConsentsConsentIdStatus(String consentId, String xFapiFinancialId, OBWriteConsentStatusRequest obWriteConsentStatusRequest, String xFapiInteractionId) {
+        OBReadConsentResponse5 consent = service.updateConsentStatus(consentId, obWriteConsentStatusRequest);
+        return new ResponseEntity<>(consent, HttpStatus.OK);
+    }
+
+    /**
+     * Handles the POST /account-access-consents/bulk endpoint to create several consents at once.
+     * @param obWriteConsentBulkRequest The request body containing the consents to create.
+     * @return A ResponseEntity containing the per-item results and HTTP status 200.
+     */
+    @Override
+    public ResponseEntity<OBConsentBulkResponse> createAccountAccessConsentsBulk(OBWriteConsentBulkRequest obWriteConsentBulkRequest) {
+        OBConsentBulkResponse results = service.createConsents(obWriteConsentBulkRequest);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Handles the POST /account-access-consents/bulk-retrieval endpoint to retrieve several consents at once.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param obReadConsentBulkRequest The request body containing the IDs of the consents to retrieve.
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @return A ResponseEntity containing the per-item results and HTTP status 200.
+     */
+    @Override
+    public ResponseEntity<OBConsentBulkResponse> getAccountAccessConsentsBulk(String xFapiFinancialId, OBReadConsentBulkRequest obReadConsentBulkRequest, String xFapiInteractionId) {
+        OBConsentBulkResponse results = service.getConsentsByIds(obReadConsentBulkRequest);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Handles the POST /account-access-consents/bulk-validation endpoint to check several consents at once.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param obConsentValidationBulkRequest The request body containing the consents to check.
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @return A ResponseEntity containing the outcome of every check and HTTP status 200.
+     */
+    @Override
+    public ResponseEntity<OBConsentValidationBulkResponse> validateAccountAccessConsentsBulk(String xFapiFinancialId, OBConsentValidationBulkRequest obConsentValidationBulkRequest, String xFapiInteractionId) {
+        OBConsentValidationBulkResponse results = service.validateConsents(obConsentValidationBulkRequest);
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    /**
+     * Handles the GET /account-access-consents endpoint to list consents, one page at a time.
+     * The parameters are validated and the page is read before the response starts, it is then written to the client.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @param status The status filter (optional).
+     * @param permission The permission filter (optional).
+     * @param expirationFrom The start of the expiry window (optional).
+     * @param expirationTo The end of the expiry window (optional).
+     * @param pageSize The maximum number of consents in the page (optional).
+     * @param cursor The cursor of the previous page (optional).
+     * @return A ResponseEntity with the page and HTTP status 200, or 400 if a parameter is not valid.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> listAccountAccessConsents(String xFapiFinancialId, String xFapiInteractionId, String status, String permission, OffsetDateTime expirationFrom, OffsetDateTime expirationTo, Integer pageSize, String cursor) {
+        ConsentListQuery query = listService.prepareQuery(status, permission, expirationFrom, expirationTo, pageSize, cursor);
+        byte[] page = listService.readPage(query);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).contentLength(page.length)
+                .body(outputStream -> outputStream.write(page));
+    }
+
+    /**
+     * Handles the GET /account-access-consents/events endpoint to subscribe to the consent events.
+     * The events relayed from the outbox are pushed to the stream until it times out and the subscriber reconnects.
+     * @param xFapiFinancialId The financial ID header (required by the API).
+     * @param xFapiInteractionId The interaction ID header (optional).
+     * @param lastEventId The id of the last event received, to resume after it (optional).
+     * @return A ResponseEntity with the event stream and HTTP status 200, or 429 if there are too many subscribers.
+     */
+    @Override
+    public ResponseEntity<SseEmitter> subscribeAccountAccessConsentEvents(String xFapiFinancialId, String xFapiInteractionId, Long lastEventId) {
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(eventBroadcaster.subscribe(lastEventId));
+    }
+
     /**
      * Handles InvalidRequestException and returns a 400 Bad Request status with an error message.
      * This is a local exception handler for this controller.
@@ -81,6 +207,7 @@ public class AccountAccessConsentsController implements AccountAccessConsentsApi
      */
     @ExceptionHandler(InvalidRequestException.class)
     public ResponseEntity<Map<String, String>> handleInvalidRequestException(InvalidRequestException ex) {
+        metrics.rejected(ConsentMetrics.Rejection.INVALID);
         Map<String, String> errorResponse = Collections.singletonMap("error", ex.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
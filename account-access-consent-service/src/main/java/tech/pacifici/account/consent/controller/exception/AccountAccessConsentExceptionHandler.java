@@ -1,12 +1,21 @@
 package tech.pacifici.account.consent.controller.exception;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import tech.pacifici.account.consent.domain.ConflictException;
 import tech.pacifici.account.consent.domain.ResourceNotFoundException;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.service.ConsentMetrics;
+import tech.pacifici.model.OBError1;
+import tech.pacifici.model.OBErrorResponse1;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -14,8 +23,14 @@ import java.util.Map;
  * across the entire application.
  */
 @ControllerAdvice
+@RequiredArgsConstructor
 public class AccountAccessConsentExceptionHandler {
 
+    private static final String UNEXPECTED_ERROR = "UK.OBIE.UnexpectedError";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConsentMetrics metrics;
+
     /**
      * Handles the custom ResourceNotFoundException and returns a 404 Not Found status.
      *
@@ -24,7 +39,54 @@ public class AccountAccessConsentExceptionHandler {
      */
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        metrics.rejected(ConsentMetrics.Rejection.NOT_FOUND);
         Map<String, String> errorResponse = Collections.singletonMap("error", ex.getMessage());
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * Handles the ConflictException thrown when a request conflicts with the state of a consent,
+     * and returns a 409 Conflict status with the Conflict error body of the API.
+     *
+     * @param ex The ConflictException that was thrown.
+     * @return A ResponseEntity with an OBErrorResponse1 body and a 409 HTTP status.
+     */
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<OBErrorResponse1> handleConflictException(ConflictException ex) {
+        OBErrorResponse1 errorResponse = new OBErrorResponse1(String.valueOf(HttpStatus.CONFLICT.value()),
+                HttpStatus.CONFLICT.getReasonPhrase())
+                .errors(List.of(new OBError1(ex.getErrorCode(), ex.getMessage())));
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles the TooManyRequestsException thrown when the database admission limiter is full,
+     * and returns a 429 Too Many Requests status with the TooManyRequests error body of the API.
+     *
+     * @param ex The TooManyRequestsException that was thrown.
+     * @return A ResponseEntity with an OBErrorResponse1 body, a Retry-After header and a 429 HTTP status.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<OBErrorResponse1> handleTooManyRequestsException(TooManyRequestsException ex) {
+        OBErrorResponse1 errorResponse = new OBErrorResponse1(String.valueOf(HttpStatus.TOO_MANY_REQUESTS.value()),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .errors(List.of(new OBError1(UNEXPECTED_ERROR, ex.getMessage())));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles a transaction that could not be started. When the connection was refused by the database
+     * admission limiter, the request is answered like a TooManyRequestsException, otherwise the exception is rethrown.
+     *
+     * @param ex The CannotCreateTransactionException that was thrown.
+     * @return A ResponseEntity with an OBErrorResponse1 body and a 429 HTTP status.
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<OBErrorResponse1> handleCannotCreateTransactionException(CannotCreateTransactionException ex) {
+        return TooManyRequestsException.findIn(ex)
+                .map(this::handleTooManyRequestsException)
+                .orElseThrow(() -> ex);
+    }
 }
@@ -1,27 +1,40 @@
 package tech.pacifici.account.consent.domain;
 
+import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
 
 import java.time.OffsetDateTime;
+import java.util.Set;
 
 /**
  * JPA Entity representing an Account Access Consent.
  * This class maps to the `account_access_consents` table in the PostgreSQL database.
  * The getter and setter methods have been explicitly defined instead of using @Data,
  * to prevent any possible build issues.
+ * The entity implements Persistable because its ID is assigned by the application: without it Spring Data
+ * would treat every new consent as detached and issue a SELECT before each INSERT, which also defeats JDBC batching.
  */
 @Entity
 @Table(name = "account_access_consents")
 @NoArgsConstructor
-@EqualsAndHashCode
-@ToString
-public class AccountAccessConsent {
+@EqualsAndHashCode(exclude = "requestBody")
+@ToString(exclude = "requestBody")
+public class AccountAccessConsent implements Persistable<String> {
 
     @Id
     @Column(name = "consent_id")
@@ -38,12 +51,38 @@ public class AccountAccessConsent {
     @Column(name = "expiration_date_time")
     private OffsetDateTime expirationDateTime;
 
-    // Storing as a comma-separated string for simplicity.
-    // In a production environment, you might use a separate table or a custom converter.
-    private String permissions;
+    // Stored as a BIGINT bitmask, one bit per permission.
+    @Convert(converter = PermissionSetConverter.class)
+    private Set<PermissionsEnum> permissions;
 
-    @Column(name = "request_body", columnDefinition = "TEXT")
-    private String requestBody; // Storing the full request body as JSON
+    // Original request serialized by Jackson, stored as JSONB and only fetched when accessed.
+    @Basic(fetch = FetchType.LAZY)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "request_body", columnDefinition = "jsonb")
+    private String requestBody;
+
+    // Incremented on every status change, status updates are conditional on the version read.
+    @Version
+    private long version;
+
+    // Not persisted, true until the entity has been inserted or loaded.
+    private transient boolean newEntity = true;
+
+    @Override
+    public String getId() {
+        return consentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 
     public String getConsentId() {
         return consentId;
@@ -85,11 +124,11 @@ public class AccountAccessConsent {
         this.expirationDateTime = expirationDateTime;
     }
 
-    public String getPermissions() {
+    public Set<PermissionsEnum> getPermissions() {
         return permissions;
     }
 
-    public void setPermissions(String permissions) {
+    public void setPermissions(Set<PermissionsEnum> permissions) {
         this.permissions = permissions;
     }
 
@@ -100,4 +139,12 @@ public class AccountAccessConsent {
     public void setRequestBody(String requestBody) {
         this.requestBody = requestBody;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,29 @@
+package tech.pacifici.account.consent.domain;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to be thrown when a request conflicts with the current state of a resource,
+ * e.g. a status change that the consent lifecycle does not allow.
+ * The @ResponseStatus annotation tells Spring to return an HTTP 409 (Conflict)
+ * status code when this exception is thrown.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    private final String errorCode;
+
+    /**
+     * @param errorCode The Open Banking UK error code reported in the error response.
+     * @param message   The description of the conflict.
+     */
+    public ConflictException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
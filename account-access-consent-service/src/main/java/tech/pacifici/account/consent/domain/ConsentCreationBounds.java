@@ -0,0 +1,68 @@
+package tech.pacifici.account.consent.domain;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Bounds of the creation date and time of consents, derived from their IDs.
+ * The consent table is partitioned on creation_date_time: queries by ID also filter on these bounds, so that
+ * PostgreSQL only searches the partition a consent was created in.
+ * <p>
+ * New consents are created at the timestamp of their time-ordered ID. Consents stored before that were created
+ * right after their ID was generated, hence the tolerance. Other IDs, random ones or any ID supplied by a client,
+ * can have been created at any time and are searched in every partition.
+ *
+ * @param from The earliest possible creation date and time.
+ * @param to   The latest possible creation date and time.
+ */
+public record ConsentCreationBounds(OffsetDateTime from, OffsetDateTime to) {
+
+    /**
+     * Bounds matching any creation date and time.
+     */
+    public static final ConsentCreationBounds ANY = new ConsentCreationBounds(
+            OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC));
+
+    // Maximum delay between generating a time-ordered ID and reading the creation date and time.
+    private static final Duration CREATION_TOLERANCE = Duration.ofMinutes(1);
+
+    /**
+     * Derives the bounds of the creation date and time of a consent from its ID.
+     *
+     * @param consentId The ID of the consent.
+     * @return The bounds, or {@link #ANY} if the ID is not time-ordered.
+     */
+    public static ConsentCreationBounds of(String consentId) {
+        Optional<Instant> timestamp = TimeOrderedConsentIdGenerator.timestampOf(consentId);
+        if (timestamp.isEmpty()) {
+            return ANY;
+        }
+        OffsetDateTime from = OffsetDateTime.ofInstant(timestamp.get(), ZoneOffset.UTC);
+        return new ConsentCreationBounds(from, from.plus(CREATION_TOLERANCE));
+    }
+
+    /**
+     * Derives the bounds of the creation date and time of several consents, from the earliest to the latest.
+     *
+     * @param consentIds The IDs of the consents.
+     * @return The bounds covering every consent, {@link #ANY} if one of the IDs is not time-ordered.
+     */
+    public static ConsentCreationBounds of(Collection<String> consentIds) {
+        OffsetDateTime from = null;
+        OffsetDateTime to = null;
+        for (String consentId : consentIds) {
+            ConsentCreationBounds bounds = of(consentId);
+            if (bounds == ANY) {
+                return ANY;
+            }
+            from = from == null || bounds.from().isBefore(from) ? bounds.from() : from;
+            to = to == null || bounds.to().isAfter(to) ? bounds.to() : to;
+        }
+        return from == null ? ANY : new ConsentCreationBounds(from, to);
+    }
+}
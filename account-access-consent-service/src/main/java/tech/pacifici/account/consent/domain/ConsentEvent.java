@@ -0,0 +1,20 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A change of an account access consent, taken from the transactional outbox: its creation or a status change.
+ *
+ * @param eventId              The ID of the event in the outbox, increasing in the order the events of a consent happened.
+ * @param consentId            The ID of the consent.
+ * @param status               The status of the consent after the change.
+ * @param statusUpdateDateTime The date and time of the change.
+ */
+public record ConsentEvent(
+        long eventId,
+        String consentId,
+        OBReadConsentResponse5Data.StatusEnum status,
+        OffsetDateTime statusUpdateDateTime) {
+}
@@ -0,0 +1,20 @@
+package tech.pacifici.account.consent.domain;
+
+/**
+ * Generates the IDs of new account access consents.
+ * IDs are immutable, unique and unguessable, and start with {@link #PREFIX}.
+ */
+public interface ConsentIdGenerator {
+
+    /**
+     * The prefix of every consent ID.
+     */
+    String PREFIX = "ACC-";
+
+    /**
+     * Generates a new consent ID.
+     *
+     * @return The consent ID.
+     */
+    String generate();
+}
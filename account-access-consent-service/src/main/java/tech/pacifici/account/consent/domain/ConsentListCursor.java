@@ -0,0 +1,53 @@
+package tech.pacifici.account.consent.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset cursor of the consent list: the sort key of the last consent of a page, the next page starts after it.
+ * Encoded as an opaque URL safe string, which also records the sort order it was produced for.
+ *
+ * @param byExpiration Whether the list is sorted by expiration rather than creation date and time.
+ * @param position     The expiration or creation date and time of the last consent of the page.
+ * @param consentId    The ID of the last consent of the page, breaking ties between equal positions.
+ */
+public record ConsentListCursor(boolean byExpiration, OffsetDateTime position, String consentId) {
+
+    private static final String BY_EXPIRATION = "e";
+    private static final String BY_CREATION = "c";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Encodes the cursor.
+     *
+     * @return The opaque cursor string.
+     */
+    public String encode() {
+        String plain = (byExpiration ? BY_EXPIRATION : BY_CREATION) + SEPARATOR
+                + position.withOffsetSameInstant(ZoneOffset.UTC) + SEPARATOR + consentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @param cursor The opaque cursor string.
+     * @return The cursor.
+     * @throws InvalidRequestException if the string is not a cursor.
+     */
+    public static ConsentListCursor decode(String cursor) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = plain.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3 || !(BY_EXPIRATION.equals(parts[0]) || BY_CREATION.equals(parts[0]))) {
+                throw new InvalidRequestException("The Cursor is not valid.");
+            }
+            return new ConsentListCursor(BY_EXPIRATION.equals(parts[0]), OffsetDateTime.parse(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidRequestException("The Cursor is not valid.");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A validated page request of the consent list.
+ * Consents are sorted by expiration date and time when an expiry window is given, by creation date and time
+ * otherwise, and by ID within equal dates and times.
+ *
+ * @param status         Only consents with this status, or null for any status.
+ * @param permission     Only consents granting this permission, or null for any permission.
+ * @param expirationFrom Only consents expiring at or after this date and time, or null.
+ * @param expirationTo   Only consents expiring before this date and time, or null.
+ * @param pageSize       The maximum number of consents in the page.
+ * @param cursor         The cursor of the previous page, or null for the first page.
+ */
+public record ConsentListQuery(StatusEnum status,
+                               PermissionsEnum permission,
+                               OffsetDateTime expirationFrom,
+                               OffsetDateTime expirationTo,
+                               int pageSize,
+                               ConsentListCursor cursor) {
+
+    /**
+     * Checks whether the list is sorted by expiration rather than creation date and time.
+     *
+     * @return true if an expiry window is given.
+     */
+    public boolean byExpiration() {
+        return expirationFrom != null || expirationTo != null;
+    }
+}
@@ -0,0 +1,133 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper methods to store consent permissions as a bitmask.
+ * Every permission is stored as the bit at the position of its ordinal in the generated {@link PermissionsEnum},
+ * so the permissions of a consent fit in a single BIGINT column and can be queried with bitwise predicates,
+ * e.g. {@code permissions & 16384 <> 0} for ReadTransactionsDetail.
+ * <p>
+ * The bit positions are persisted: new permissions must be appended at the end of the enum in the OpenAPI spec,
+ * never inserted between the existing ones.
+ */
+public final class ConsentPermissions {
+
+    private static final PermissionsEnum[] PERMISSIONS = PermissionsEnum.values();
+    private static final long ALL_BITS = (1L << PERMISSIONS.length) - 1;
+    private static final PermissionsEnum[] REQUEST_TO_RESPONSE = new PermissionsEnum[OBWriteDomesticConsent4Data.PermissionsEnum.values().length];
+    private static final Map<String, PermissionsEnum> BY_VALUE = new HashMap<>();
+
+    static {
+        if (PERMISSIONS.length > Long.SIZE) {
+            throw new IllegalStateException("Too many permissions to be stored as a 64 bit mask");
+        }
+        for (PermissionsEnum permission : PERMISSIONS) {
+            BY_VALUE.put(permission.getValue(), permission);
+        }
+        for (OBWriteDomesticConsent4Data.PermissionsEnum permission : OBWriteDomesticConsent4Data.PermissionsEnum.values()) {
+            REQUEST_TO_RESPONSE[permission.ordinal()] = fromValue(permission.getValue());
+        }
+    }
+
+    private ConsentPermissions() {
+    }
+
+    /**
+     * Returns the bit used to store the given permission.
+     *
+     * @param permission The permission.
+     * @return A mask with only the bit of the permission set.
+     */
+    public static long bitOf(PermissionsEnum permission) {
+        return 1L << permission.ordinal();
+    }
+
+    /**
+     * Converts permissions to their bitmask.
+     *
+     * @param permissions The permissions.
+     * @return The bitmask with the bit of every permission set.
+     */
+    public static long toBits(Collection<PermissionsEnum> permissions) {
+        long bits = 0;
+        for (PermissionsEnum permission : permissions) {
+            bits |= bitOf(permission);
+        }
+        return bits;
+    }
+
+    /**
+     * Converts a bitmask back to the set of permissions it contains.
+     *
+     * @param bits The bitmask.
+     * @return The permissions whose bits are set.
+     * @throws IllegalArgumentException if a bit does not match any known permission.
+     */
+    public static EnumSet<PermissionsEnum> fromBits(long bits) {
+        if ((bits & ~ALL_BITS) != 0) {
+            throw new IllegalArgumentException("Unknown permission bits: " + Long.toBinaryString(bits & ~ALL_BITS));
+        }
+        EnumSet<PermissionsEnum> permissions = EnumSet.noneOf(PermissionsEnum.class);
+        for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            permissions.add(PERMISSIONS[Long.numberOfTrailingZeros(remaining)]);
+        }
+        return permissions;
+    }
+
+    /**
+     * Converts a bitmask straight to an immutable list of the permissions it contains, in enum order,
+     * without building a set first.
+     *
+     * @param bits The bitmask.
+     * @return The permissions whose bits are set.
+     * @throws IllegalArgumentException if a bit does not match any known permission.
+     */
+    public static List<PermissionsEnum> listFromBits(long bits) {
+        if ((bits & ~ALL_BITS) != 0) {
+            throw new IllegalArgumentException("Unknown permission bits: " + Long.toBinaryString(bits & ~ALL_BITS));
+        }
+        PermissionsEnum[] permissions = new PermissionsEnum[Long.bitCount(bits)];
+        int index = 0;
+        for (long remaining = bits; remaining != 0; remaining &= remaining - 1) {
+            permissions[index++] = PERMISSIONS[Long.numberOfTrailingZeros(remaining)];
+        }
+        return List.of(permissions);
+    }
+
+    /**
+     * Converts a permission value, e.g. ReadBalances, to its response enum with a lookup table.
+     *
+     * @param value The permission value.
+     * @return The permission.
+     * @throws IllegalArgumentException if the value is not a known permission.
+     */
+    public static PermissionsEnum fromValue(String value) {
+        PermissionsEnum permission = BY_VALUE.get(value);
+        if (permission == null) {
+            throw new IllegalArgumentException("Unexpected value '" + value + "'");
+        }
+        return permission;
+    }
+
+    /**
+     * Converts the permissions of a creation request to the permissions of the response model.
+     *
+     * @param permissions The requested permissions.
+     * @return The same permissions, as response enum values.
+     */
+    public static EnumSet<PermissionsEnum> fromRequest(Collection<OBWriteDomesticConsent4Data.PermissionsEnum> permissions) {
+        EnumSet<PermissionsEnum> converted = EnumSet.noneOf(PermissionsEnum.class);
+        for (OBWriteDomesticConsent4Data.PermissionsEnum permission : permissions) {
+            converted.add(REQUEST_TO_RESPONSE[permission.ordinal()]);
+        }
+        return converted;
+    }
+}
@@ -0,0 +1,68 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Immutable view of the fields of an Account Access Consent that are exposed through the API.
+ * Unlike the generated OBReadConsentResponse5 model, instances can be safely shared between
+ * threads, which makes them suitable for caching.
+ *
+ * @param consentId            The unique consent identifier.
+ * @param status               The current status of the consent.
+ * @param creationDateTime     Date and time at which the consent was created.
+ * @param statusUpdateDateTime Date and time at which the status was last updated.
+ * @param expirationDateTime   Date and time at which the consent expires, may be null.
+ * @param permissions          The permissions granted by the consent.
+ * @param version              The version of the consent, incremented on every status change.
+ */
+public record ConsentSnapshot(
+        String consentId,
+        OBReadConsentResponse5Data.StatusEnum status,
+        OffsetDateTime creationDateTime,
+        OffsetDateTime statusUpdateDateTime,
+        OffsetDateTime expirationDateTime,
+        List<OBReadConsentResponse5Data.PermissionsEnum> permissions,
+        long version) {
+
+    public ConsentSnapshot {
+        permissions = List.copyOf(permissions);
+    }
+
+    /**
+     * Checks whether the consent has passed its expiration date and time.
+     *
+     * @param now The reference point in time.
+     * @return true if the consent has an expiration date and time that is not after now.
+     */
+    public boolean isExpiredAt(OffsetDateTime now) {
+        return expirationDateTime != null && !expirationDateTime.isAfter(now);
+    }
+
+    /**
+     * Checks whether the consent can be used to access account information.
+     *
+     * @param permission The permission the consent must grant, or null to only check the status and expiry.
+     * @param now        The reference point in time.
+     * @return true if the consent is authorised, has not expired, and grants the permission.
+     */
+    public boolean grants(OBReadConsentResponse5Data.PermissionsEnum permission, OffsetDateTime now) {
+        return status == OBReadConsentResponse5Data.StatusEnum.AUTHORISED
+                && !isExpiredAt(now)
+                && (permission == null || permissions.contains(permission));
+    }
+
+    /**
+     * Returns a copy of this snapshot after a status change.
+     *
+     * @param newStatus               The new status.
+     * @param newStatusUpdateDateTime The date and time of the status change.
+     * @return The snapshot with the new status and the next version.
+     */
+    public ConsentSnapshot withStatus(OBReadConsentResponse5Data.StatusEnum newStatus, OffsetDateTime newStatusUpdateDateTime) {
+        return new ConsentSnapshot(consentId, newStatus, creationDateTime, newStatusUpdateDateTime,
+                expirationDateTime, permissions, version + 1);
+    }
+}
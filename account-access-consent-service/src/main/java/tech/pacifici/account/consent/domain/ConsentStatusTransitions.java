@@ -0,0 +1,41 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The Open Banking UK account access consent lifecycle.
+ * A consent awaiting authorisation is either authorised or rejected by the PSU, and an authorised consent can
+ * later be revoked. Rejected, Revoked and Expired are final. Expired is only set by the expiry sweeper, and
+ * the DELETE endpoint also revokes consents still awaiting authorisation.
+ */
+public final class ConsentStatusTransitions {
+
+    private static final Map<StatusEnum, Set<StatusEnum>> ALLOWED = new EnumMap<>(StatusEnum.class);
+
+    static {
+        for (StatusEnum status : StatusEnum.values()) {
+            ALLOWED.put(status, EnumSet.noneOf(StatusEnum.class));
+        }
+        ALLOWED.get(StatusEnum.AWAITING_AUTHORISATION).addAll(EnumSet.of(StatusEnum.AUTHORISED, StatusEnum.REJECTED));
+        ALLOWED.get(StatusEnum.AUTHORISED).add(StatusEnum.REVOKED);
+    }
+
+    private ConsentStatusTransitions() {
+    }
+
+    /**
+     * Checks whether a consent can move from one status to another through the status endpoint.
+     *
+     * @param from The current status of the consent.
+     * @param to   The requested status.
+     * @return true if the lifecycle allows the transition.
+     */
+    public static boolean isAllowed(StatusEnum from, StatusEnum to) {
+        return ALLOWED.get(from).contains(to);
+    }
+}
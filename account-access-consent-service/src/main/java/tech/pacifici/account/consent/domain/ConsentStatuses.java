@@ -0,0 +1,57 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+import tech.pacifici.model.OBWriteConsentStatusRequestData;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookup tables between the stored consent status, the status of the response model and the status of the
+ * status change request.
+ * The generated fromValue methods scan a copy of values() on every call; these tables are built once, so the
+ * conversions on the read path neither loop nor allocate.
+ */
+public final class ConsentStatuses {
+
+    private static final Map<String, StatusEnum> BY_VALUE = new HashMap<>();
+    private static final StatusEnum[] REQUEST_TO_RESPONSE =
+            new StatusEnum[OBWriteConsentStatusRequestData.StatusEnum.values().length];
+
+    static {
+        for (StatusEnum status : StatusEnum.values()) {
+            BY_VALUE.put(status.getValue(), status);
+        }
+        for (OBWriteConsentStatusRequestData.StatusEnum status : OBWriteConsentStatusRequestData.StatusEnum.values()) {
+            REQUEST_TO_RESPONSE[status.ordinal()] = fromValue(status.getValue());
+        }
+    }
+
+    private ConsentStatuses() {
+    }
+
+    /**
+     * Converts a stored or requested status value, e.g. AwaitingAuthorisation, to its response enum.
+     *
+     * @param value The status value.
+     * @return The status.
+     * @throws IllegalArgumentException if the value is not a known status.
+     */
+    public static StatusEnum fromValue(String value) {
+        StatusEnum status = BY_VALUE.get(value);
+        if (status == null) {
+            throw new IllegalArgumentException("Unexpected value '" + value + "'");
+        }
+        return status;
+    }
+
+    /**
+     * Converts the status of a status change request to the status of the response model.
+     *
+     * @param status The requested status.
+     * @return The same status, as a response enum value.
+     */
+    public static StatusEnum fromRequest(OBWriteConsentStatusRequestData.StatusEnum status) {
+        return REQUEST_TO_RESPONSE[status.ordinal()];
+    }
+}
@@ -0,0 +1,15 @@
+package tech.pacifici.account.consent.domain;
+
+import tech.pacifici.model.OBConsentValidation;
+
+/**
+ * Outcome of the validation of a single consent, together with what a caller needs to revalidate it with a
+ * conditional request.
+ *
+ * @param validation The outcome of the validation.
+ * @param entityTag  The entity tag of the outcome, which changes whenever the outcome may have changed.
+ */
+public record ConsentValidity(
+        OBConsentValidation validation,
+        String entityTag) {
+}
@@ -0,0 +1,10 @@
+package tech.pacifici.account.consent.domain;
+
+/**
+ * A consent event delivered by the outbox relay, as read by the consent event streams.
+ *
+ * @param position The position of the event in the stream, increasing in the order events were delivered.
+ * @param event    The event.
+ */
+public record DeliveredConsentEvent(long position, ConsentEvent event) {
+}
@@ -0,0 +1,13 @@
+package tech.pacifici.account.consent.domain;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The outcome of a consent creation request made with an idempotency key.
+ *
+ * @param requestHash      The SHA-256 hash of the request body, hex encoded.
+ * @param consentId        The ID of the consent created by the request.
+ * @param creationDateTime The date and time the key was stored, its time to live runs from there.
+ */
+public record IdempotencyRecord(String requestHash, String consentId, OffsetDateTime creationDateTime) {
+}
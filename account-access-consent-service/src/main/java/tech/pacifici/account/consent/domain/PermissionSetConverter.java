@@ -0,0 +1,25 @@
+package tech.pacifici.account.consent.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * JPA converter storing a set of permissions as a BIGINT bitmask, see {@link ConsentPermissions}.
+ */
+@Converter
+public class PermissionSetConverter implements AttributeConverter<Set<PermissionsEnum>, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Set<PermissionsEnum> permissions) {
+        return permissions == null ? null : ConsentPermissions.toBits(permissions);
+    }
+
+    @Override
+    public Set<PermissionsEnum> convertToEntityAttribute(Long bits) {
+        return bits == null ? EnumSet.noneOf(PermissionsEnum.class) : ConsentPermissions.fromBits(bits);
+    }
+}
@@ -0,0 +1,15 @@
+package tech.pacifici.account.consent.domain;
+
+import java.util.UUID;
+
+/**
+ * Generates consent IDs from random (version 4) UUIDs, e.g. ACC-3b241101-e2bb-4255-8caf-4136c566a962.
+ * Consecutive IDs land anywhere in the primary key index, every insert touches a random leaf page.
+ */
+public class RandomConsentIdGenerator implements ConsentIdGenerator {
+
+    @Override
+    public String generate() {
+        return PREFIX + UUID.randomUUID();
+    }
+}
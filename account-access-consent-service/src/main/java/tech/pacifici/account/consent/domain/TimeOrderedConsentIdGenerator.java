@@ -0,0 +1,93 @@
+package tech.pacifici.account.consent.domain;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Generates consent IDs from time-ordered (version 7, RFC 9562) UUIDs, e.g. ACC-01928f4e-6a3b-7c1d-9e2f-0a1b2c3d4e5f.
+ * The first 48 bits are the Unix time in milliseconds, so IDs generated later sort after earlier ones and new
+ * consents are appended to the right edge of the primary key index instead of splitting random leaf pages.
+ * <p>
+ * The remaining 74 bits are random for the first ID of each millisecond. Later IDs of the same millisecond add
+ * a random increment to the previous ones (the monotonic random method of RFC 9562), so IDs from one generator
+ * are strictly increasing and still not guessable from each other. Should the clock go backwards, IDs keep
+ * counting from the last timestamp used.
+ */
+public class TimeOrderedConsentIdGenerator implements ConsentIdGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final long RAND_A_MASK = 0xFFFL;
+    private static final long RAND_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+    // Upper bound of the random increment between two IDs of the same millisecond.
+    private static final long MAX_INCREMENT = 1L << 32;
+
+    private final Clock clock;
+
+    private long lastMillis = -1;
+    private long randA;
+    private long randB;
+
+    public TimeOrderedConsentIdGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String generate() {
+        return PREFIX + generateUuid();
+    }
+
+    /**
+     * Extracts the timestamp of a time-ordered consent ID.
+     *
+     * @param consentId The consent ID, possibly supplied by a client.
+     * @return The timestamp of the ID, or an empty Optional if it is not a time-ordered consent ID.
+     */
+    public static Optional<Instant> timestampOf(String consentId) {
+        if (consentId == null || consentId.length() != PREFIX.length() + 36 || !consentId.startsWith(PREFIX)) {
+            return Optional.empty();
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(consentId.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        if (uuid.version() != 7 || uuid.variant() != 2) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(uuid.getMostSignificantBits() >>> 16));
+    }
+
+    /**
+     * Generates a version 7 UUID for the current time, greater than any UUID generated before.
+     *
+     * @return The UUID.
+     */
+    synchronized UUID generateUuid() {
+        long millis = clock.millis();
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            randA = RANDOM.nextLong() & RAND_A_MASK;
+            randB = RANDOM.nextLong() & RAND_B_MASK;
+        } else {
+            randB += 1 + RANDOM.nextLong(MAX_INCREMENT);
+            if (randB > RAND_B_MASK) {
+                randB &= RAND_B_MASK;
+                randA = (randA + 1) & RAND_A_MASK;
+                if (randA == 0) {
+                    // 74 bits exhausted within one millisecond, borrow the next one.
+                    lastMillis++;
+                }
+            }
+        }
+        // unix_ts_ms (48 bits) | version 7 (4 bits) | rand_a (12 bits)
+        long mostSignificantBits = (lastMillis << 16) | 0x7000L | randA;
+        // variant 10 (2 bits) | rand_b (62 bits)
+        long leastSignificantBits = 0x8000000000000000L | randB;
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+}
@@ -0,0 +1,35 @@
+package tech.pacifici.account.consent.domain;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Optional;
+
+/**
+ * Custom exception to be thrown when a request is rejected because the service is saturated.
+ * The @ResponseStatus annotation tells Spring to return an HTTP 429 (Too Many Requests)
+ * status code when this exception is thrown.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+
+    /**
+     * Finds the TooManyRequestsException behind an exception, e.g. behind the CannotCreateTransactionException of
+     * a transaction whose connection was refused by the database admission limiter.
+     *
+     * @param ex The exception.
+     * @return The exception itself or its first TooManyRequestsException cause, or an empty Optional if there is none.
+     */
+    public static Optional<TooManyRequestsException> findIn(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TooManyRequestsException tooManyRequests) {
+                return Optional.of(tooManyRequests);
+            }
+        }
+        return Optional.empty();
+    }
+}
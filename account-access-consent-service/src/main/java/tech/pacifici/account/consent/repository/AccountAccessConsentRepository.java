@@ -1,13 +1,73 @@
 package tech.pacifici.account.consent.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentCreationBounds;
+
+import java.time.OffsetDateTime;
 
 /**
  * Spring Data JPA Repository for the AccountAccessConsent entity.
  * It provides standard CRUD operations.
+ * Updates by ID also filter on the creation date and time derived from the ID, see {@link ConsentCreationBounds}.
  */
 @Repository
 public interface AccountAccessConsentRepository extends JpaRepository<AccountAccessConsent, String> {
+
+    /**
+     * Revokes a consent with a single conditional UPDATE, without loading the entity first.
+     * Only consents that are awaiting authorisation or authorised can be revoked. The version is incremented,
+     * so that a concurrent status change based on the previous version fails.
+     *
+     * @param consentId            The ID of the consent to revoke.
+     * @param statusUpdateDateTime The date and time of the status change.
+     * @return The number of revoked consents, either 0 or 1.
+     */
+    default int revokeById(String consentId, OffsetDateTime statusUpdateDateTime) {
+        ConsentCreationBounds bounds = ConsentCreationBounds.of(consentId);
+        return revokeById(consentId, bounds.from(), bounds.to(), statusUpdateDateTime);
+    }
+
+    @Modifying
+    @Query("UPDATE AccountAccessConsent c"
+            + " SET c.status = 'Revoked', c.statusUpdateDateTime = :statusUpdateDateTime, c.version = c.version + 1"
+            + " WHERE c.consentId = :consentId AND c.creationDateTime BETWEEN :createdFrom AND :createdTo"
+            + " AND c.status IN ('AwaitingAuthorisation', 'Authorised')")
+    int revokeById(@Param("consentId") String consentId,
+                   @Param("createdFrom") OffsetDateTime createdFrom,
+                   @Param("createdTo") OffsetDateTime createdTo,
+                   @Param("statusUpdateDateTime") OffsetDateTime statusUpdateDateTime);
+
+    /**
+     * Changes the status of a consent with a single conditional UPDATE, only if it still has the version read
+     * by the caller. No row lock is taken before the update: a concurrent change is detected by the version.
+     *
+     * @param consentId            The ID of the consent to update.
+     * @param status               The new status.
+     * @param statusUpdateDateTime The date and time of the status change.
+     * @param version              The version the status change is based on.
+     * @return The number of updated consents, 0 if the consent no longer has the given version.
+     */
+    default int updateStatusIfVersion(String consentId, String status, OffsetDateTime statusUpdateDateTime,
+                                      long version) {
+        ConsentCreationBounds bounds = ConsentCreationBounds.of(consentId);
+        return updateStatusIfVersion(consentId, bounds.from(), bounds.to(), status, statusUpdateDateTime, version);
+    }
+
+    @Modifying
+    @Query("UPDATE AccountAccessConsent c"
+            + " SET c.status = :status, c.statusUpdateDateTime = :statusUpdateDateTime, c.version = c.version + 1"
+            + " WHERE c.consentId = :consentId AND c.creationDateTime BETWEEN :createdFrom AND :createdTo"
+            + " AND c.version = :version")
+    int updateStatusIfVersion(@Param("consentId") String consentId,
+                              @Param("createdFrom") OffsetDateTime createdFrom,
+                              @Param("createdTo") OffsetDateTime createdTo,
+                              @Param("status") String status,
+                              @Param("statusUpdateDateTime") OffsetDateTime statusUpdateDateTime,
+                              @Param("version") long version);
 }
+
@@ -0,0 +1,165 @@
+package tech.pacifici.account.consent.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestContextHolder;
+import tech.pacifici.account.consent.config.DatabaseAdmissionProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource limiting the number of connections checked out at once with semaphores sized to the pool.
+ * A permit is taken when a connection is obtained and given back when it is closed, so callers holding a permit
+ * never wait on the pool. When no permit frees up within the acquire timeout, the caller is rejected with a
+ * {@link TooManyRequestsException} instead of queueing for the pool connection timeout.
+ * <p>
+ * The permits are split between the request path, callers handling an HTTP request, and background work, the
+ * scheduled jobs, the group commit flusher and the migrations, which get a few permits of their own: neither can
+ * starve the other of connections. A limiter reserving no background permit lets background work share the request
+ * permits.
+ * The time spent waiting for a permit is published as consent.db.admission.wait, the time then spent waiting for
+ * the pool itself as hikaricp.connections.acquire. The admission metrics are tagged with the pool and the kind of
+ * work.
+ */
+public class AdmissionLimitingDataSource extends DelegatingDataSource {
+
+    private static final String PRIMARY_POOL = "primary";
+
+    private final Permits requestPermits;
+    private final Permits backgroundPermits;
+    private final long acquireTimeoutNanos;
+
+    public AdmissionLimitingDataSource(DataSource targetDataSource, DatabaseAdmissionProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this(targetDataSource, properties, meterRegistry, PRIMARY_POOL);
+    }
+
+    /**
+     * Creates a limiter for one of several pools, its metrics are tagged with the name of the pool.
+     *
+     * @param targetDataSource The pool.
+     * @param properties       The admission properties, with maxConcurrent sized to the pool.
+     * @param meterRegistry    The registry of the limiter metrics.
+     * @param pool             The name of the pool.
+     */
+    public AdmissionLimitingDataSource(DataSource targetDataSource, DatabaseAdmissionProperties properties,
+                                       MeterRegistry meterRegistry, String pool) {
+        super(targetDataSource);
+        if (properties.backgroundPermits() < 0 || properties.backgroundPermits() >= properties.maxConcurrent()) {
+            throw new IllegalArgumentException("The background permits of the " + pool
+                    + " pool must leave at least one of its " + properties.maxConcurrent() + " permits to requests");
+        }
+        this.requestPermits = new Permits(properties.maxConcurrent() - properties.backgroundPermits(),
+                meterRegistry, pool, "request");
+        this.backgroundPermits = properties.backgroundPermits() == 0 ? requestPermits
+                : new Permits(properties.backgroundPermits(), meterRegistry, pool, "background");
+        this.acquireTimeoutNanos = properties.acquireTimeout().toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Permits permits = acquire();
+        try {
+            return releasingOnClose(super.getConnection(), permits);
+        } catch (SQLException | RuntimeException ex) {
+            permits.semaphore().release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Permits permits = acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password), permits);
+        } catch (SQLException | RuntimeException ex) {
+            permits.semaphore().release();
+            throw ex;
+        }
+    }
+
+    private Permits acquire() {
+        Permits permits = RequestContextHolder.getRequestAttributes() != null ? requestPermits : backgroundPermits;
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.semaphore().tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        permits.waits().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            permits.rejections().increment();
+            throw new TooManyRequestsException("All database connections are in use, retry later.");
+        }
+        return permits;
+    }
+
+    private Connection releasingOnClose(Connection connection, Permits permits) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> invokeReleasingOnClose(connection, permits, released, method, args);
+                });
+    }
+
+    private static Object invokeReleasingOnClose(Connection connection, Permits permits, AtomicBoolean released,
+                                                 Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("close")) {
+            // Closing a closed connection is a no-op, the permit is only given back once.
+            if (released.compareAndSet(false, true)) {
+                try {
+                    connection.close();
+                } finally {
+                    permits.semaphore().release();
+                }
+            }
+            return null;
+        }
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    /**
+     * The permits of one kind of work, with their metrics.
+     */
+    private record Permits(Semaphore semaphore, Counter rejections, Timer waits) {
+
+        private Permits(int permits, MeterRegistry meterRegistry, String pool, String work) {
+            this(new Semaphore(permits),
+                    Counter.builder("consent.db.admission.rejections")
+                            .description("Database accesses rejected because every connection permit was in use")
+                            .tags("pool", pool, "work", work)
+                            .register(meterRegistry),
+                    Timer.builder("consent.db.admission.wait")
+                            .description("Time spent waiting for a connection permit, rejected attempts included")
+                            .tags("pool", pool, "work", work)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry));
+            Gauge.builder("consent.db.admission.in.use", semaphore, s -> permits - s.availablePermits())
+                    .description("Connection permits currently held")
+                    .tags("pool", pool, "work", work)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * JDBC repository inserting new consents as a single multi-row INSERT.
+ * Outside of a transaction the statement commits on its own, so all the rows of a batch are made durable
+ * by one commit. The SQL depends on the number of rows only, the prepared statement cache keeps one per size.
+ * The creation events of the consents are appended to the outbox by the same statement, from its RETURNING rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsentBatchInsertRepository {
+
+    private static final String INSERT = "WITH created AS (INSERT INTO account_access_consents (consent_id, status,"
+            + " creation_date_time, status_update_date_time, expiration_date_time, permissions, request_body, version)"
+            + " VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, CAST(? AS jsonb), ?)";
+    private static final String APPEND_EVENTS = " RETURNING consent_id, status, status_update_date_time)"
+            + " INSERT INTO consent_outbox (consent_id, status, status_update_date_time)"
+            + " SELECT consent_id, status, status_update_date_time FROM created";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the given consents and their creation events with one statement: either all of them are inserted or none.
+     *
+     * @param consents The new consents.
+     */
+    public void insertAll(List<AccountAccessConsent> consents) {
+        if (consents.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(INSERT.length() + consents.size() * (ROW.length() + 2)
+                + APPEND_EVENTS.length()).append(INSERT);
+        for (int row = 0; row < consents.size(); row++) {
+            sql.append(row == 0 ? "" : ", ").append(ROW);
+        }
+        sql.append(APPEND_EVENTS);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString());
+            int index = 1;
+            for (AccountAccessConsent consent : consents) {
+                statement.setString(index++, consent.getConsentId());
+                statement.setString(index++, consent.getStatus());
+                statement.setObject(index++, consent.getCreationDateTime());
+                statement.setObject(index++, consent.getStatusUpdateDateTime());
+                statement.setObject(index++, consent.getExpirationDateTime());
+                statement.setLong(index++, ConsentPermissions.toBits(consent.getPermissions()));
+                statement.setString(index++, consent.getRequestBody());
+                statement.setLong(index++, consent.getVersion());
+            }
+            return statement;
+        });
+    }
+}
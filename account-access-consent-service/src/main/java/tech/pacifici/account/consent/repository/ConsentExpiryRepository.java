@@ -0,0 +1,114 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC repository for the expiry sweeper.
+ * Every batch is a single statement selecting its rows with FOR UPDATE SKIP LOCKED, so that several replicas
+ * sweeping at the same time each take different rows instead of waiting on each other.
+ * Batches are keyset paginated on the sweeper indexes: each one starts after the last row of the previous one,
+ * so rows skipped because another replica holds them are not scanned again by every following batch.
+ * Batches are returned in sweep order, compared with the database collation, and the last row is the cursor.
+ * Rows are updated on their full primary key, consent ID and creation date and time, so on a single partition.
+ * Expired consents get their status change event appended to the outbox by the same statement.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsentExpiryRepository {
+
+    private static final String EXPIRE_BATCH = "WITH due AS ("
+            + " SELECT consent_id, creation_date_time FROM account_access_consents"
+            + " WHERE status IN ('AwaitingAuthorisation', 'Authorised') AND expiration_date_time <= ?%s"
+            + " ORDER BY expiration_date_time, consent_id LIMIT ? FOR UPDATE SKIP LOCKED)"
+            + ", swept AS (UPDATE account_access_consents c SET status = 'Expired', status_update_date_time = ?,"
+            + " version = c.version + 1"
+            + " FROM due WHERE c.consent_id = due.consent_id AND c.creation_date_time = due.creation_date_time"
+            + " RETURNING c.consent_id, c.status, c.status_update_date_time, c.expiration_date_time AS position)"
+            + ", events AS (INSERT INTO consent_outbox (consent_id, status, status_update_date_time)"
+            + " SELECT consent_id, status, status_update_date_time FROM swept)"
+            + " SELECT consent_id, position FROM swept ORDER BY position, consent_id";
+
+    private static final String PURGE_BATCH = "WITH due AS ("
+            + " SELECT consent_id, creation_date_time FROM account_access_consents"
+            + " WHERE status IN ('Rejected', 'Revoked', 'Expired') AND status_update_date_time < ?%s"
+            + " ORDER BY status_update_date_time, consent_id LIMIT ? FOR UPDATE SKIP LOCKED)"
+            + ", swept AS (DELETE FROM account_access_consents c USING due"
+            + " WHERE c.consent_id = due.consent_id AND c.creation_date_time = due.creation_date_time"
+            + " RETURNING c.consent_id, c.status_update_date_time AS position)"
+            + " SELECT consent_id, position FROM swept ORDER BY position, consent_id";
+
+    private static final String SELECT_OLDEST_DUE = "SELECT min(expiration_date_time) FROM account_access_consents"
+            + " WHERE status IN ('AwaitingAuthorisation', 'Authorised') AND expiration_date_time <= ?";
+
+    private static final RowMapper<SweptConsent> SWEPT_CONSENT_ROW_MAPPER = (rs, rowNum) -> new SweptConsent(
+            rs.getString("consent_id"), rs.getObject("position", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Marks a batch of consents Expired, in expiration order, and appends their events to the outbox.
+     *
+     * @param now   Consents expiring at or before this date and time are due.
+     * @param after The last consent of the previous batch, or null for the first batch.
+     * @param limit The maximum number of consents to expire.
+     * @return The expired consents in expiration order, positioned on their expiration date and time.
+     */
+    public List<SweptConsent> expireBatch(OffsetDateTime now, SweptConsent after, int limit) {
+        return sweepBatch(EXPIRE_BATCH, "expiration_date_time", now, after, limit, now);
+    }
+
+    /**
+     * Deletes a batch of consents that reached a final status before the given cutoff, oldest first.
+     *
+     * @param cutoff Consents whose status last changed before this date and time are deleted.
+     * @param after  The last consent of the previous batch, or null for the first batch.
+     * @param limit  The maximum number of consents to delete.
+     * @return The deleted consents in status update order, positioned on their status update date and time.
+     */
+    public List<SweptConsent> purgeBatch(OffsetDateTime cutoff, SweptConsent after, int limit) {
+        return sweepBatch(PURGE_BATCH, "status_update_date_time", cutoff, after, limit, null);
+    }
+
+    /**
+     * Returns the expiration date and time of the oldest consent that is due but not marked Expired yet.
+     *
+     * @param now The current date and time.
+     * @return The oldest due expiration date and time, or null if the sweeper is caught up.
+     */
+    public OffsetDateTime findOldestDueExpiration(OffsetDateTime now) {
+        return jdbcTemplate.queryForObject(SELECT_OLDEST_DUE, OffsetDateTime.class, now);
+    }
+
+    private List<SweptConsent> sweepBatch(String sql, String positionColumn, OffsetDateTime bound,
+                                          SweptConsent after, int limit, OffsetDateTime statusUpdateDateTime) {
+        List<Object> args = new ArrayList<>();
+        args.add(bound);
+        String keyset = "";
+        if (after != null) {
+            keyset = " AND (" + positionColumn + ", consent_id) > (?, ?)";
+            args.add(after.position());
+            args.add(after.consentId());
+        }
+        args.add(limit);
+        if (statusUpdateDateTime != null) {
+            args.add(statusUpdateDateTime);
+        }
+        return jdbcTemplate.query(sql.formatted(keyset), SWEPT_CONSENT_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * A consent processed by a sweeper batch, with its position in the sweep order.
+     *
+     * @param consentId The ID of the consent.
+     * @param position  The value of the column the batch is ordered on.
+     */
+    public record SweptConsent(String consentId, OffsetDateTime position) {
+    }
+}
@@ -0,0 +1,160 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentEvent;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+import tech.pacifici.account.consent.domain.DeliveredConsentEvent;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * JDBC repository for the transactional outbox of the consent changes.
+ * Events are appended in the transaction changing the consent, after the consent row is written: the row lock
+ * is held until commit, so the events of a consent get increasing IDs in the order their changes committed.
+ * <p>
+ * The relay locks its batches with FOR UPDATE SKIP LOCKED, so that several replicas relaying at the same time each
+ * take different events. A batch only holds the oldest waiting event of every consent: the next event of a consent
+ * is not eligible until the previous one is marked delivered, which keeps the events of a consent in order.
+ * <p>
+ * Delivered events are kept until the retention purge, numbered with their position in the consent event stream.
+ * Positions are assigned under a transaction level advisory lock, one transaction at a time, so a reader that has
+ * seen a position never misses a lower one committed later.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsentOutboxRepository {
+
+    private static final String INSERT = "INSERT INTO consent_outbox (consent_id, status, status_update_date_time)"
+            + " VALUES (?, ?, ?)";
+
+    private static final String LOCK_BATCH = "SELECT id, consent_id, status, status_update_date_time"
+            + " FROM consent_outbox o WHERE o.position IS NULL AND NOT EXISTS (SELECT 1 FROM consent_outbox earlier"
+            + " WHERE earlier.consent_id = o.consent_id AND earlier.position IS NULL AND earlier.id < o.id)"
+            + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    // Advisory lock key shared by every replica, the ASCII bytes of "consento".
+    private static final long POSITION_LOCK_KEY = 0x636f6e73656e746fL;
+
+    private static final String MARK_DELIVERED = "UPDATE consent_outbox"
+            + " SET position = nextval('consent_outbox_position_seq') WHERE id = ? AND position IS NULL";
+
+    private static final String SELECT_DELIVERED_AFTER = "SELECT position, id, consent_id, status, status_update_date_time"
+            + " FROM consent_outbox WHERE position > ? ORDER BY position LIMIT ?";
+
+    private static final String SELECT_LAST_POSITION = "SELECT coalesce(max(position), 0) FROM consent_outbox";
+
+    private static final String DELETE_DELIVERED_BEFORE = "DELETE FROM consent_outbox WHERE id IN (SELECT id"
+            + " FROM consent_outbox WHERE position IS NOT NULL AND status_update_date_time < ? ORDER BY position LIMIT ?)";
+
+    private static final String SELECT_OLDEST = "SELECT status_update_date_time FROM consent_outbox"
+            + " WHERE position IS NULL ORDER BY id LIMIT 1";
+
+    private static final RowMapper<ConsentEvent> CONSENT_EVENT_ROW_MAPPER = (rs, rowNum) -> new ConsentEvent(
+            rs.getLong("id"),
+            rs.getString("consent_id"),
+            ConsentStatuses.fromValue(rs.getString("status")),
+            rs.getObject("status_update_date_time", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends the event of a status change, in the current transaction.
+     *
+     * @param consentId            The ID of the consent.
+     * @param status               The new status.
+     * @param statusUpdateDateTime The date and time of the status change.
+     */
+    public void append(String consentId, String status, OffsetDateTime statusUpdateDateTime) {
+        jdbcTemplate.update(INSERT, consentId, status, statusUpdateDateTime);
+    }
+
+    /**
+     * Appends the creation events of new consents as a JDBC batch, in the current transaction.
+     *
+     * @param consents The new consents.
+     */
+    public void appendCreated(List<AccountAccessConsent> consents) {
+        if (consents.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, consents, consents.size(), (statement, consent) -> {
+            statement.setString(1, consent.getConsentId());
+            statement.setString(2, consent.getStatus());
+            statement.setObject(3, consent.getStatusUpdateDateTime());
+        });
+    }
+
+    /**
+     * Locks a batch of events, the oldest waiting event of every consent, skipping the ones locked by another relay.
+     * The events stay locked until the current transaction ends.
+     *
+     * @param limit The maximum number of events.
+     * @return The events in ID order.
+     */
+    public List<ConsentEvent> lockBatch(int limit) {
+        return jdbcTemplate.query(LOCK_BATCH, CONSENT_EVENT_ROW_MAPPER, limit);
+    }
+
+    /**
+     * Marks delivered events with their position in the consent event stream, in the current transaction.
+     * Events already marked by another relay keep their position. Waits for the advisory lock held by the
+     * transaction of any other relay marking events, which is released when that transaction ends.
+     *
+     * @param events The delivered events, in ID order.
+     */
+    public void markDelivered(List<ConsentEvent> events) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + POSITION_LOCK_KEY + ")");
+        // Executed in order, the events of a batch get their positions in ID order.
+        jdbcTemplate.batchUpdate(MARK_DELIVERED, events, events.size(),
+                (statement, event) -> statement.setLong(1, event.eventId()));
+    }
+
+    /**
+     * Reads the delivered events following a position in the consent event stream.
+     *
+     * @param position The position of the last event already read, 0 to read from the oldest one kept.
+     * @param limit    The maximum number of events.
+     * @return The events in position order.
+     */
+    public List<DeliveredConsentEvent> findDeliveredAfter(long position, int limit) {
+        return jdbcTemplate.query(SELECT_DELIVERED_AFTER,
+                (rs, rowNum) -> new DeliveredConsentEvent(rs.getLong("position"), CONSENT_EVENT_ROW_MAPPER.mapRow(rs, rowNum)),
+                position, limit);
+    }
+
+    /**
+     * Returns the position of the last delivered event in the consent event stream.
+     *
+     * @return The position, or 0 if no delivered event is kept.
+     */
+    public long findLastPosition() {
+        Long position = jdbcTemplate.queryForObject(SELECT_LAST_POSITION, Long.class);
+        return position == null ? 0 : position;
+    }
+
+    /**
+     * Deletes a batch of the delivered events that happened before the cutoff, oldest first.
+     *
+     * @param cutoff The date and time before which delivered events are deleted.
+     * @param limit  The maximum number of events.
+     * @return The number of deleted events.
+     */
+    public int deleteDeliveredBefore(OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_DELIVERED_BEFORE, cutoff, limit);
+    }
+
+    /**
+     * Returns the date and time of the oldest event waiting to be relayed.
+     *
+     * @return The date and time of the oldest event, or null if no event is waiting.
+     */
+    public OffsetDateTime findOldestEventDateTime() {
+        return jdbcTemplate.query(SELECT_OLDEST,
+                rs -> rs.next() ? rs.getObject("status_update_date_time", OffsetDateTime.class) : null);
+    }
+}
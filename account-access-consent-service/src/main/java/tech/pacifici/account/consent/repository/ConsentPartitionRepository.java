@@ -0,0 +1,120 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * JDBC repository managing the monthly partitions of the account_access_consents table.
+ * Partitions are named account_access_consents_pYYYYMM and cover one calendar month of creation_date_time, in UTC.
+ * DDL runs in short transactions that first take a transaction level advisory lock, so that replicas maintaining
+ * partitions at the same time take turns, and give up after the lock timeout instead of queueing requests
+ * behind their lock on the parent table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsentPartitionRepository {
+
+    private static final String PARENT_TABLE = "account_access_consents";
+    private static final String PARTITION_PREFIX = PARENT_TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    // Advisory lock key shared by every replica, the ASCII bytes of "consentp".
+    private static final long MAINTENANCE_LOCK_KEY = 0x636f6e73656e7470L;
+
+    private static final String SELECT_PARTITIONS = "SELECT c.relname FROM pg_inherits i"
+            + " JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = '" + PARENT_TABLE + "'::regclass";
+
+    private static final String SELECT_RETAINED = "SELECT EXISTS (SELECT 1 FROM %1$s"
+            + " WHERE status IN ('AwaitingAuthorisation', 'Authorised'))"
+            + " OR EXISTS (SELECT 1 FROM %1$s"
+            + " WHERE status IN ('Rejected', 'Revoked', 'Expired') AND status_update_date_time >= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lists the months with a partition.
+     *
+     * @return The months, in no particular order. Partitions not following the naming scheme are left out.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(SELECT_PARTITIONS, String.class).stream()
+                .map(ConsentPartitionRepository::monthOf)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Creates the partition of a month, unless it already exists.
+     *
+     * @param month       The month.
+     * @param lockTimeout How long to wait for the locks.
+     */
+    @Transactional
+    public void createPartition(YearMonth month, Duration lockTimeout) {
+        lock(lockTimeout);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                + " PARTITION OF " + PARENT_TABLE
+                + " FOR VALUES FROM ('" + startOf(month) + "') TO ('" + startOf(month.plusMonths(1)) + "')");
+    }
+
+    /**
+     * Checks whether the partition of a month still holds consents to keep: consents that are not in a final
+     * status, or that reached it at or after the cutoff. Both are answered from the partial sweeper indexes.
+     *
+     * @param month  The month.
+     * @param cutoff The date and time from which consents in a final status are kept.
+     * @return true if the partition cannot be dropped.
+     */
+    public boolean hasRetainedConsents(YearMonth month, OffsetDateTime cutoff) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                SELECT_RETAINED.formatted(partitionName(month)), Boolean.class, cutoff));
+    }
+
+    /**
+     * Detaches the partition of a month and drops it.
+     *
+     * @param month       The month.
+     * @param lockTimeout How long to wait for the locks.
+     */
+    @Transactional
+    public void dropPartition(YearMonth month, Duration lockTimeout) {
+        lock(lockTimeout);
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partitionName(month));
+        jdbcTemplate.execute("DROP TABLE " + partitionName(month));
+    }
+
+    private void lock(Duration lockTimeout) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MAINTENANCE_LOCK_KEY + ")");
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    private static String startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC).toString();
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)
+                || partitionName.length() != PARTITION_PREFIX.length() + 6) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
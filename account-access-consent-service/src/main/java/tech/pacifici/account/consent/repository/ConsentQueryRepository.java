@@ -0,0 +1,142 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tech.pacifici.account.consent.domain.ConsentCreationBounds;
+import tech.pacifici.account.consent.domain.ConsentListCursor;
+import tech.pacifici.account.consent.domain.ConsentListQuery;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC based read repository for account access consents.
+ * Queries select only the columns exposed through the API and map rows straight to {@link ConsentSnapshot},
+ * bypassing the JPA persistence context.
+ * Queries by ID also filter on the creation date and time derived from the IDs, see {@link ConsentCreationBounds}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ConsentQueryRepository {
+
+    private static final String SELECT_SNAPSHOT = "SELECT consent_id, status, creation_date_time,"
+            + " status_update_date_time, expiration_date_time, permissions, version FROM account_access_consents";
+
+    private static final RowMapper<ConsentSnapshot> SNAPSHOT_ROW_MAPPER = ConsentQueryRepository::mapSnapshot;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds a consent by its ID, selecting only the columns needed to build the API response.
+     * Runs in a read-only transaction: no entity is managed and nothing is dirty checked or flushed.
+     *
+     * @param consentId The ID of the consent to find.
+     * @return The consent, or an empty Optional if it does not exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ConsentSnapshot> findSnapshotById(String consentId) {
+        ConsentCreationBounds bounds = ConsentCreationBounds.of(consentId);
+        return jdbcTemplate.query(SELECT_SNAPSHOT + " WHERE consent_id = ? AND creation_date_time BETWEEN ? AND ?",
+                        SNAPSHOT_ROW_MAPPER, consentId, bounds.from(), bounds.to())
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Finds all the consents with the given IDs in a single round-trip, binding the IDs as one array parameter.
+     *
+     * @param consentIds The IDs of the consents to find.
+     * @return The consents found, in no particular order. Unknown IDs are simply missing from the result.
+     */
+    @Transactional(readOnly = true)
+    public List<ConsentSnapshot> findSnapshotsByIds(Collection<String> consentIds) {
+        if (consentIds.isEmpty()) {
+            return List.of();
+        }
+        ConsentCreationBounds bounds = ConsentCreationBounds.of(consentIds);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_SNAPSHOT + " WHERE consent_id = ANY(?) AND creation_date_time BETWEEN ? AND ?");
+            statement.setArray(1, connection.createArrayOf("varchar", consentIds.toArray()));
+            statement.setObject(2, bounds.from());
+            statement.setObject(3, bounds.to());
+            return statement;
+        }, SNAPSHOT_ROW_MAPPER);
+    }
+
+    /**
+     * Streams a page of the consent list, keyset paginated on the list sort order.
+     * Rows are fetched fetchSize at a time from a server side cursor and handed over one by one, so that
+     * a page is never held in memory as a whole. The connection is held until the consumer has seen every row.
+     *
+     * @param query     The page request.
+     * @param limit     The maximum number of consents to stream.
+     * @param fetchSize The number of rows fetched from the database at a time.
+     * @param consumer  Receives the consents in list order.
+     */
+    @Transactional(readOnly = true)
+    public void streamSnapshots(ConsentListQuery query, int limit, int fetchSize, Consumer<ConsentSnapshot> consumer) {
+        String positionColumn = query.byExpiration() ? "expiration_date_time" : "creation_date_time";
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (query.status() != null) {
+            conditions.add("status = ?");
+            args.add(query.status().getValue());
+        }
+        if (query.permission() != null) {
+            conditions.add("permissions & ? <> 0");
+            args.add(ConsentPermissions.bitOf(query.permission()));
+        }
+        if (query.expirationFrom() != null) {
+            conditions.add("expiration_date_time >= ?");
+            args.add(query.expirationFrom());
+        }
+        if (query.expirationTo() != null) {
+            conditions.add("expiration_date_time < ?");
+            args.add(query.expirationTo());
+        }
+        ConsentListCursor cursor = query.cursor();
+        if (cursor != null) {
+            conditions.add("(" + positionColumn + ", consent_id) > (?, ?)");
+            args.add(cursor.position());
+            args.add(cursor.consentId());
+        }
+        args.add(limit);
+        String sql = SELECT_SNAPSHOT
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY " + positionColumn + ", consent_id LIMIT ?";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapSnapshot(rs, rs.getRow())));
+    }
+
+    private static ConsentSnapshot mapSnapshot(ResultSet rs, int rowNum) throws SQLException {
+        return new ConsentSnapshot(
+                rs.getString("consent_id"),
+                ConsentStatuses.fromValue(rs.getString("status")),
+                rs.getObject("creation_date_time", OffsetDateTime.class),
+                rs.getObject("status_update_date_time", OffsetDateTime.class),
+                rs.getObject("expiration_date_time", OffsetDateTime.class),
+                ConsentPermissions.listFromBits(rs.getLong("permissions")),
+                rs.getLong("version"));
+    }
+}
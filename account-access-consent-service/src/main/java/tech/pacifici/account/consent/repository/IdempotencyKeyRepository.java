@@ -0,0 +1,77 @@
+package tech.pacifici.account.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import tech.pacifici.account.consent.domain.IdempotencyRecord;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * JDBC repository for the idempotency keys of consent creation requests.
+ * A key past its time to live is treated as absent, whether or not it has been purged yet.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    // An expired key left behind by the purge is taken over, a live one is left untouched.
+    private static final String INSERT_IF_ABSENT = "INSERT INTO idempotency_keys"
+            + " (idempotency_key, request_hash, consent_id, creation_date_time) VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (idempotency_key) DO UPDATE SET request_hash = EXCLUDED.request_hash,"
+            + " consent_id = EXCLUDED.consent_id, creation_date_time = EXCLUDED.creation_date_time"
+            + " WHERE idempotency_keys.creation_date_time < ?";
+
+    private static final String SELECT_BY_KEY = "SELECT request_hash, consent_id, creation_date_time FROM idempotency_keys"
+            + " WHERE idempotency_key = ? AND creation_date_time >= ?";
+
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_keys WHERE idempotency_key IN ("
+            + " SELECT idempotency_key FROM idempotency_keys WHERE creation_date_time < ?"
+            + " ORDER BY creation_date_time LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final RowMapper<IdempotencyRecord> IDEMPOTENCY_RECORD_ROW_MAPPER = (rs, rowNum) ->
+            new IdempotencyRecord(rs.getString("request_hash"), rs.getString("consent_id"),
+                    rs.getObject("creation_date_time", OffsetDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores a key unless a live one already exists. When another transaction is storing the same key,
+     * the insert waits for it to complete.
+     *
+     * @param idempotencyKey The idempotency key.
+     * @param record         The outcome of the request, stored with its creation date and time.
+     * @param notBefore      Keys created before this date and time are expired and can be taken over.
+     * @return true if the key was stored, false if a live key already exists.
+     */
+    public boolean insertIfAbsent(String idempotencyKey, IdempotencyRecord record, OffsetDateTime notBefore) {
+        return jdbcTemplate.update(INSERT_IF_ABSENT, idempotencyKey, record.requestHash(), record.consentId(),
+                record.creationDateTime(), notBefore) == 1;
+    }
+
+    /**
+     * Finds a live key.
+     *
+     * @param idempotencyKey The idempotency key.
+     * @param notBefore      Keys created before this date and time are expired and ignored.
+     * @return The outcome of the request made with the key, or an empty Optional.
+     */
+    public Optional<IdempotencyRecord> findByKey(String idempotencyKey, OffsetDateTime notBefore) {
+        return jdbcTemplate.query(SELECT_BY_KEY, IDEMPOTENCY_RECORD_ROW_MAPPER, idempotencyKey, notBefore)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Deletes a batch of expired keys, oldest first.
+     *
+     * @param cutoff Keys created before this date and time are deleted.
+     * @param limit  The maximum number of keys to delete.
+     * @return The number of deleted keys.
+     */
+    public int deleteExpired(OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, cutoff, limit);
+    }
+}
@@ -0,0 +1,95 @@
+package tech.pacifici.account.consent.repository;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource sending read-only transactions to the replica pools, round robin, and everything else to the primary.
+ * The routing decision is taken when a connection is obtained, which the {@link ReadRoutingJpaTransactionManager}
+ * does at the start of every transaction, once it has told whether the transaction is read-only.
+ * Reads that must see a write committed moments ago run inside {@link #onPrimary(Supplier)}.
+ */
+public class ReadRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> READ_ONLY_TRANSACTION = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * Runs a read on the primary, even inside a read-only transaction.
+     *
+     * @param read The read to run.
+     * @param <T>  The type of the result.
+     * @return The result of the read.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return read.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Runs the start of a transaction, routing the connection it obtains on its read-only flag.
+     *
+     * @param readOnly Whether the transaction is read-only.
+     * @param begin    The start of the transaction.
+     */
+    static void beginTransaction(boolean readOnly, Runnable begin) {
+        READ_ONLY_TRANSACTION.set(readOnly);
+        try {
+            begin.run();
+        } finally {
+            READ_ONLY_TRANSACTION.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primary.unwrap(iface);
+    }
+
+    DataSource determineTarget() {
+        if (replicas.isEmpty()
+                || !Boolean.TRUE.equals(READ_ONLY_TRANSACTION.get())
+                || Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return primary;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+}
@@ -0,0 +1,17 @@
+package tech.pacifici.account.consent.repository;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * JpaTransactionManager telling the {@link ReadRoutingDataSource} whether a transaction is read-only while it
+ * starts it. The flag cannot be read from the TransactionSynchronizationManager: it is only set once the
+ * transaction has started, after its connection was obtained.
+ */
+public class ReadRoutingJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        ReadRoutingDataSource.beginTransaction(definition.isReadOnly(), () -> super.doBegin(transaction, definition));
+    }
+}
@@ -0,0 +1,74 @@
+package tech.pacifici.account.consent.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import tech.pacifici.account.consent.config.SlowQueryProperties;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs the SQL statements slower than a threshold, JPA and JDBC alike, as structured key-value pairs.
+ * It listens to the DataSource proxy of datasource-micrometer, which already times every statement.
+ * Every slow statement is counted in consent.db.slow.queries, while only a sample of them is logged so that a
+ * slow database does not also flood the logs. Statements are logged without their parameter values.
+ */
+@Slf4j
+public class SlowQueryLogger implements QueryExecutionListener {
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final int maxQueryLength;
+    private final Counter slowQueries;
+
+    public SlowQueryLogger(SlowQueryProperties properties, MeterRegistry meterRegistry) {
+        this.thresholdMillis = properties.threshold().toMillis();
+        this.sampleRate = properties.sampleRate();
+        this.maxQueryLength = properties.maxQueryLength();
+        this.slowQueries = Counter.builder("consent.db.slow.queries")
+                .description("SQL statements slower than the slow query threshold, logged or not")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Statements are only inspected once they have run.
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis) {
+            return;
+        }
+        slowQueries.increment();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        log.atWarn()
+                .addKeyValue("elapsed_ms", execInfo.getElapsedTime())
+                .addKeyValue("success", execInfo.isSuccess())
+                .addKeyValue("statement_type", execInfo.getStatementType())
+                .addKeyValue("batch_size", execInfo.isBatch() ? execInfo.getBatchSize() : 1)
+                .addKeyValue("data_source", execInfo.getDataSourceName())
+                .addKeyValue("query", describe(queryInfoList))
+                .log("Slow SQL statement");
+    }
+
+    private String describe(List<QueryInfo> queryInfoList) {
+        StringBuilder queries = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (!queries.isEmpty()) {
+                queries.append("; ");
+            }
+            queries.append(queryInfo.getQuery());
+            if (queries.length() >= maxQueryLength) {
+                return queries.substring(0, maxQueryLength) + "...";
+            }
+        }
+        return queries.toString();
+    }
+}
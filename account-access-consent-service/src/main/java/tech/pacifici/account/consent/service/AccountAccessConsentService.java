@@ -1,148 +1,601 @@
 package tech.pacifici.account.consent.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.pacifici.account.consent.config.ConsentBulkProperties;
 import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConflictException;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+import tech.pacifici.account.consent.domain.ConsentIdGenerator;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+import tech.pacifici.account.consent.domain.ConsentStatusTransitions;
+import tech.pacifici.account.consent.domain.ConsentValidity;
+import tech.pacifici.account.consent.domain.IdempotencyRecord;
 import tech.pacifici.account.consent.domain.InvalidRequestException;
 import tech.pacifici.account.consent.domain.ResourceNotFoundException;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
 import tech.pacifici.account.consent.repository.AccountAccessConsentRepository;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.account.consent.service.ConsentMetrics.Operation;
+import tech.pacifici.account.consent.service.ConsentMetrics.Rejection;
+import tech.pacifici.account.consent.service.ConsentMetrics.Stage;
+import tech.pacifici.model.OBConsentBulkResponse;
+import tech.pacifici.model.OBConsentBulkResponseData;
+import tech.pacifici.model.OBConsentBulkResult;
+import tech.pacifici.model.OBConsentValidation;
+import tech.pacifici.model.OBConsentValidationBulkRequest;
+import tech.pacifici.model.OBConsentValidationBulkResponse;
+import tech.pacifici.model.OBConsentValidationBulkResponseData;
+import tech.pacifici.model.OBConsentValidationCheck;
+import tech.pacifici.model.OBError1;
+import tech.pacifici.model.OBReadConsentBulkRequest;
 import tech.pacifici.model.OBReadConsentResponse5;
 import tech.pacifici.model.OBReadConsentResponse5Data;
+import tech.pacifici.model.OBWriteConsentBulkRequest;
+import tech.pacifici.model.OBWriteConsentStatusRequest;
 import tech.pacifici.model.OBWriteDomesticConsent4;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service layer for managing account access consents.
- * It contains the business logic for creating, retrieving, and deleting consents.
+ * It contains the business logic for creating, retrieving, validating and deleting consents, individually or in bulk.
  * It also handles the validation of incoming requests and manages consent states.
+ * Consents are served through a read-through {@link ConsentCache}, which is kept in sync on every write,
+ * and changes are broadcast to the other replicas through the {@link ConsentInvalidationBus}.
+ * Every creation and status change is also appended to the consent outbox in the same transaction, from which
+ * the {@link ConsentOutboxRelay} pushes it to downstream systems.
+ * The stages of every operation are timed with the {@link ConsentMetrics}.
  */
 @Service
 @RequiredArgsConstructor
 public class AccountAccessConsentService {
 
+    // Open Banking UK error codes reported for the items of bulk requests.
+    private static final String FIELD_INVALID = "UK.OBIE.Field.Invalid";
+    private static final String RESOURCE_NOT_FOUND = "UK.OBIE.Resource.NotFound";
+    // Open Banking UK error codes reported with a 409 Conflict.
+    private static final String INVALID_CONSENT_STATUS = "UK.OBIE.Resource.InvalidConsentStatus";
+    private static final String HEADER_INVALID = "UK.OBIE.Header.Invalid";
+
+    // Maximum length of an x-idempotency-key, as defined by Open Banking UK.
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 40;
+
+    // A status change that lost a race is re-read and re-validated, at most this many times in total.
+    private static final int STATUS_UPDATE_ATTEMPTS = 3;
+
     private final AccountAccessConsentRepository repository;
+    private final ConsentQueryRepository queryRepository;
+    private final ConsentCache consentCache;
+    private final ConsentMapper consentMapper;
+    private final ConsentIdGenerator consentIdGenerator;
+    private final ConsentInvalidationBus invalidationBus;
+    private final ConsentReadRouting readRouting;
+    private final IdempotencyStore idempotencyStore;
+    private final ConsentGroupCommitter groupCommitter;
+    private final ConsentOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConsentBulkProperties bulkProperties;
+    private final ObjectMapper objectMapper;
+    private final ConsentMetrics metrics;
 
     /**
      * Creates and stores a new account access consent.
      * This method validates the request body against business rules before creating the consent.
+     * With an idempotency key, a request repeating an earlier one returns the consent created by the earlier
+     * request instead of creating another. The key is stored in the same transaction as the new consent.
+     * Without one, the consent is inserted together with concurrent creations when group commit is enabled.
+     * Either way its creation event is appended to the outbox in the same transaction.
      *
-     * @param requestBody The request body containing the consent details.
+     * @param requestBody    The request body containing the consent details.
+     * @param idempotencyKey The x-idempotency-key of the request, may be null.
      * @return The response object for the created consent.
+     * @throws ConflictException if the idempotency key was used with a different request body.
      */
-    public OBReadConsentResponse5 createConsent(OBWriteDomesticConsent4 requestBody) {
+    public OBReadConsentResponse5 createConsent(OBWriteDomesticConsent4 requestBody, String idempotencyKey) {
         // Business Logic: Validate the request before creating the consent.
-        validateCreateConsentRequest(requestBody);
+        metrics.time(Operation.CREATE, Stage.VALIDATION, () -> {
+            validateCreateConsentRequest(requestBody);
+            validateIdempotencyKey(idempotencyKey);
+        });
 
-        // Business Logic: Generate a unique, immutable consent ID.
-        String consentId = "ACC-" + UUID.randomUUID().toString();
-
-        // Map the request to a JPA entity.
-        AccountAccessConsent newConsent = new AccountAccessConsent();
-        newConsent.setConsentId(consentId);
-        // Business Logic: Set initial status based on Open Banking UK rules.
-        newConsent.setStatus("AwaitingAuthorisation");
-        newConsent.setCreationDateTime(OffsetDateTime.now());
-        newConsent.setStatusUpdateDateTime(OffsetDateTime.now());
-        newConsent.setExpirationDateTime(requestBody.getData().getExpirationDateTime());
-
-        // Assuming permissions are a list of strings
-        String permissions = requestBody.getData().getPermissions().stream()
-                .map(Enum::toString)
-                .collect(Collectors.joining(","));
-        newConsent.setPermissions(permissions);
+        AccountAccessConsent newConsent = buildNewConsent(requestBody, Operation.CREATE);
 
-        // Storing the full request body as JSON for immutability and record-keeping.
-        newConsent.setRequestBody(requestBody.toString());
+        if (idempotencyKey != null) {
+            IdempotencyRecord record = new IdempotencyRecord(hashRequestBody(newConsent.getRequestBody()),
+                    newConsent.getConsentId(), newConsent.getCreationDateTime());
+            IdempotencyRecord earlier = metrics.time(Operation.CREATE, Stage.PERSISTENCE,
+                    () -> transactionTemplate.execute(status -> createIdempotentConsent(newConsent, idempotencyKey, record)));
+            if (earlier != null) {
+                return replayConsent(idempotencyKey, earlier, record.requestHash());
+            }
+            // Only cached once committed, a rolled back consent must never be served.
+            return cacheCreatedConsent(newConsent);
+        }
 
-        // Save the new consent to the database.
-        repository.save(newConsent);
+        // Save the new consent to the database, no transaction is held while waiting for the group commit.
+        metrics.time(Operation.CREATE, Stage.PERSISTENCE, () -> {
+            if (groupCommitter.isEnabled()) {
+                groupCommitter.insert(newConsent);
+            } else {
+                transactionTemplate.executeWithoutResult(status -> {
+                    repository.save(newConsent);
+                    appendCreated(newConsent);
+                });
+            }
+        });
+        return cacheCreatedConsent(newConsent);
+    }
 
-        // Map the created entity back to the response DTO.
-        OBReadConsentResponse5 response = new OBReadConsentResponse5();
-        OBReadConsentResponse5Data
-                responseData = new OBReadConsentResponse5Data
-                ();
-        responseData.setConsentId(newConsent.getConsentId());
-        responseData.setStatus(OBReadConsentResponse5Data
-                .StatusEnum.AWAITING_AUTHORISATION);
-        responseData.setCreationDateTime(newConsent.getCreationDateTime());
-        responseData.setStatusUpdateDateTime(newConsent.getStatusUpdateDateTime());
-        responseData.setExpirationDateTime(newConsent.getExpirationDateTime());
+    /**
+     * Creates and stores several account access consents in a single transaction.
+     * Every item is validated on its own: invalid items are reported in the response and skipped,
+     * while the valid ones are inserted together using JDBC batching, and so are their creation events.
+     * The created consents are cached once the transaction has committed.
+     *
+     * @param requestBody The bulk request containing the consents to create.
+     * @return The per-item results, in the same order as the request.
+     * @throws InvalidRequestException if the bulk request itself is empty or too large.
+     */
+    @Transactional
+    public OBConsentBulkResponse createConsents(OBWriteConsentBulkRequest requestBody) {
+        if (requestBody == null || requestBody.getData() == null) {
+            throw new InvalidRequestException("The request body and data field cannot be null.");
+        }
+        List<OBWriteDomesticConsent4> consents = requestBody.getData().getConsents();
+        validateBulkSize(consents);
 
-        List<OBReadConsentResponse5Data
-                .PermissionsEnum> permissionsList =
-                requestBody.getData().getPermissions().stream()
-                        .map(p -> OBReadConsentResponse5Data
-                                .PermissionsEnum.fromValue(p.getValue()))
-                        .collect(Collectors.toList());
-        responseData.setPermissions(permissionsList);
+        List<OBConsentBulkResult> results = new ArrayList<>(consents.size());
+        List<AccountAccessConsent> newConsents = new ArrayList<>(consents.size());
+        for (int index = 0; index < consents.size(); index++) {
+            OBWriteDomesticConsent4 consent = consents.get(index);
+            try {
+                metrics.time(Operation.CREATE_BULK, Stage.VALIDATION, () -> validateCreateConsentRequest(consent));
+            } catch (InvalidRequestException ex) {
+                metrics.rejected(Rejection.INVALID);
+                results.add(bulkError(index, null, HttpStatus.BAD_REQUEST, FIELD_INVALID, ex.getMessage()));
+                continue;
+            }
+            AccountAccessConsent newConsent = buildNewConsent(consent, Operation.CREATE_BULK);
+            newConsents.add(newConsent);
+            results.add(new OBConsentBulkResult(index, HttpStatus.CREATED.value()).consentId(newConsent.getConsentId()));
+        }
 
-        response.setData(responseData);
+        // Inserted as JDBC batches, see hibernate.jdbc.batch_size.
+        metrics.time(Operation.CREATE_BULK, Stage.PERSISTENCE, () -> {
+            repository.saveAll(newConsents);
+            outboxRepository.appendCreated(newConsents);
+        });
 
-        return response;
+        List<ConsentSnapshot> snapshots = new ArrayList<>(newConsents.size());
+        metrics.time(Operation.CREATE_BULK, Stage.MAPPING, () -> {
+            Iterator<AccountAccessConsent> created = newConsents.iterator();
+            for (OBConsentBulkResult result : results) {
+                if (result.getError() == null) {
+                    ConsentSnapshot snapshot = consentMapper.toSnapshot(created.next());
+                    snapshots.add(snapshot);
+                    result.setConsent(consentMapper.toResponse(snapshot));
+                }
+            }
+        });
+        // The inserts are only flushed at commit, a batch that fails there must not be served from the cache.
+        consentCache.putAllAfterCommit(snapshots);
+        return bulkResponse(results);
     }
 
     /**
      * Retrieves an account access consent by its ID.
+     * The consent is served from the cache when possible. On a miss it is loaded with a read-only projection
+     * query, which skips the JPA entity and the request body entirely, from a read replica unless the consent
+     * was written moments ago.
      *
      * @param consentId The ID of the consent to retrieve.
      * @return The response object for the found consent.
      * @throws ResourceNotFoundException if the consent is not found.
      */
     public OBReadConsentResponse5 getConsentById(String consentId) {
-        return repository.findById(consentId)
-                .map(this::mapEntityToResponse)
-                .orElseThrow(() -> new ResourceNotFoundException("Consent not found with ID: " + consentId));
+        ConsentSnapshot snapshot = findSnapshot(consentId, Operation.GET);
+        return metrics.time(Operation.GET, Stage.MAPPING, () -> consentMapper.toResponse(snapshot));
+    }
+
+    /**
+     * Checks whether an account access consent is authorised, unexpired and grants a permission.
+     * The consent is read the same way as by {@link #getConsentById(String)}, but only the outcome is mapped.
+     * The entity tag of the outcome is the version of the consent, which moves on every status change, and whether
+     * the consent has passed its expiration date and time, which happens before the expiry sweeper catches up.
+     *
+     * @param consentId  The ID of the consent to check.
+     * @param permission The permission the consent must grant, or null.
+     * @return The outcome, with its entity tag.
+     * @throws InvalidRequestException   if the permission is not known.
+     * @throws ResourceNotFoundException if the consent is not found.
+     */
+    public ConsentValidity validateConsent(String consentId, String permission) {
+        OBReadConsentResponse5Data.PermissionsEnum required = parsePermission(permission);
+        ConsentSnapshot snapshot = findSnapshot(consentId, Operation.VALIDATE);
+        OffsetDateTime now = OffsetDateTime.now();
+        boolean valid = snapshot.grants(required, now);
+        OBConsentValidation validation = metrics.time(Operation.VALIDATE, Stage.MAPPING,
+                () -> consentMapper.toValidation(snapshot, valid));
+        return new ConsentValidity(validation,
+                snapshot.isExpiredAt(now) ? snapshot.version() + "-expired" : Long.toString(snapshot.version()));
     }
 
     /**
      * Deletes an account access consent by its ID.
-     * Business Logic: This method supports the revocation of a consent.
+     * Business Logic: This method supports the revocation of a consent. The consent is kept and its status
+     * is moved to Revoked with a single conditional UPDATE, as required by Open Banking UK, and the change is
+     * appended to the outbox.
      *
      * @param consentId The ID of the consent to delete.
-     * @throws ResourceNotFoundException if the consent is not found.
+     * @throws ResourceNotFoundException if no consent that can be revoked is found.
      */
+    @Transactional
     public void deleteConsentById(String consentId) {
-        if (!repository.existsById(consentId)) {
+        OffsetDateTime now = OffsetDateTime.now();
+        int revoked = metrics.time(Operation.REVOKE, Stage.PERSISTENCE, () -> repository.revokeById(consentId, now));
+        if (revoked == 0) {
+            throw new ResourceNotFoundException("No revocable consent found with ID: " + consentId);
+        }
+        metrics.time(Operation.REVOKE, Stage.PERSISTENCE, () -> outboxRepository.append(
+                consentId, OBReadConsentResponse5Data.StatusEnum.REVOKED.getValue(), now));
+        consentCache.evict(consentId);
+        invalidationBus.publish(consentId);
+    }
+
+    /**
+     * Moves an account access consent to a new status, enforcing the Open Banking consent lifecycle.
+     * The change is a single conditional UPDATE on the version read, without locking the row: when another
+     * change wins the race the consent is read again and the transition validated against its new status.
+     * Asking for the status the consent already has is answered with the current consent, so that retries
+     * of an applied change succeed without writing. An applied change is appended to the outbox.
+     *
+     * @param consentId   The ID of the consent to update.
+     * @param requestBody The request body containing the new status.
+     * @return The response object for the updated consent.
+     * @throws InvalidRequestException   if the request is not valid.
+     * @throws ResourceNotFoundException if the consent is not found.
+     * @throws ConflictException         if the lifecycle does not allow the change, or the consent kept changing.
+     */
+    @Transactional
+    public OBReadConsentResponse5 updateConsentStatus(String consentId, OBWriteConsentStatusRequest requestBody) {
+        if (requestBody == null || requestBody.getData() == null || requestBody.getData().getStatus() == null) {
+            throw new InvalidRequestException("The request body, data and status fields cannot be null.");
+        }
+        OBReadConsentResponse5Data.StatusEnum newStatus = ConsentStatuses.fromRequest(requestBody.getData().getStatus());
+
+        for (int attempt = 0; attempt < STATUS_UPDATE_ATTEMPTS; attempt++) {
+            // Read from the database, a cached snapshot may be behind by a version.
+            ConsentSnapshot current = metrics.time(Operation.UPDATE_STATUS, Stage.PERSISTENCE,
+                            () -> queryRepository.findSnapshotById(consentId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Consent not found with ID: " + consentId));
+            if (current.status() == newStatus) {
+                return metrics.time(Operation.UPDATE_STATUS, Stage.MAPPING, () -> consentMapper.toResponse(current));
+            }
+            OffsetDateTime now = OffsetDateTime.now();
+            metrics.time(Operation.UPDATE_STATUS, Stage.VALIDATION, () -> validateStatusTransition(current, newStatus, now));
+
+            int updated = metrics.time(Operation.UPDATE_STATUS, Stage.PERSISTENCE,
+                    () -> repository.updateStatusIfVersion(consentId, newStatus.getValue(), now, current.version()));
+            if (updated == 1) {
+                metrics.time(Operation.UPDATE_STATUS, Stage.PERSISTENCE,
+                        () -> outboxRepository.append(consentId, newStatus.getValue(), now));
+                consentCache.evict(consentId);
+                invalidationBus.publish(consentId);
+                return metrics.time(Operation.UPDATE_STATUS, Stage.MAPPING,
+                        () -> consentMapper.toResponse(current.withStatus(newStatus, now)));
+            }
+        }
+        throw new ConflictException(INVALID_CONSENT_STATUS, "Consent " + consentId + " was modified concurrently, please retry.");
+    }
+
+    /**
+     * Retrieves several account access consents by their IDs.
+     * Cached consents are served from memory, all the others are fetched with a single query.
+     *
+     * @param requestBody The bulk request containing the IDs of the consents to retrieve.
+     * @return The per-item results, in the same order as the request.
+     * @throws InvalidRequestException if the bulk request itself is empty or too large.
+     */
+    public OBConsentBulkResponse getConsentsByIds(OBReadConsentBulkRequest requestBody) {
+        if (requestBody == null || requestBody.getData() == null) {
+            throw new InvalidRequestException("The request body and data field cannot be null.");
+        }
+        List<String> consentIds = requestBody.getData().getConsentIds();
+        validateBulkSize(consentIds);
+
+        Map<String, ConsentSnapshot> snapshots = findSnapshots(consentIds, Operation.GET_BULK);
+
+        List<OBConsentBulkResult> results = new ArrayList<>(consentIds.size());
+        metrics.time(Operation.GET_BULK, Stage.MAPPING, () -> {
+            for (int index = 0; index < consentIds.size(); index++) {
+                String consentId = consentIds.get(index);
+                ConsentSnapshot snapshot = snapshots.get(consentId);
+                if (snapshot == null) {
+                    metrics.rejected(Rejection.NOT_FOUND);
+                    results.add(bulkError(index, consentId, HttpStatus.NOT_FOUND, RESOURCE_NOT_FOUND,
+                            "Consent not found with ID: " + consentId));
+                } else {
+                    results.add(new OBConsentBulkResult(index, HttpStatus.OK.value())
+                            .consentId(consentId)
+                            .consent(consentMapper.toResponse(snapshot)));
+                }
+            }
+        });
+        return bulkResponse(results);
+    }
+
+    /**
+     * Checks several account access consents, each against an optional permission.
+     * Cached consents are checked from memory, all the others are fetched with a single query.
+     *
+     * @param requestBody The bulk request containing the consents to check.
+     * @return The outcome of every check, in the same order as the request. Unknown consents are not valid.
+     * @throws InvalidRequestException if the bulk request itself is empty or too large, or a permission is not known.
+     */
+    public OBConsentValidationBulkResponse validateConsents(OBConsentValidationBulkRequest requestBody) {
+        if (requestBody == null || requestBody.getData() == null) {
+            throw new InvalidRequestException("The request body and data field cannot be null.");
+        }
+        List<OBConsentValidationCheck> checks = requestBody.getData().getChecks();
+        validateBulkSize(checks);
+
+        List<OBReadConsentResponse5Data.PermissionsEnum> permissions = new ArrayList<>(checks.size());
+        List<String> consentIds = new ArrayList<>(checks.size());
+        for (OBConsentValidationCheck check : checks) {
+            permissions.add(parsePermission(check.getPermission()));
+            consentIds.add(check.getConsentId());
+        }
+        Map<String, ConsentSnapshot> snapshots = findSnapshots(consentIds, Operation.VALIDATE_BULK);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OBConsentValidation> results = new ArrayList<>(checks.size());
+        metrics.time(Operation.VALIDATE_BULK, Stage.MAPPING, () -> {
+            for (int index = 0; index < checks.size(); index++) {
+                ConsentSnapshot snapshot = snapshots.get(consentIds.get(index));
+                results.add(snapshot == null
+                        ? new OBConsentValidation(consentIds.get(index), false)
+                        : consentMapper.toValidation(snapshot, snapshot.grants(permissions.get(index), now)));
+            }
+        });
+        return new OBConsentValidationBulkResponse(new OBConsentValidationBulkResponseData(results));
+    }
+
+    /**
+     * Helper method to read a consent from the cache, or on a miss with a read-only projection query, from a
+     * read replica unless the consent was written moments ago.
+     *
+     * @param consentId The ID of the consent.
+     * @param operation The operation reading the consent.
+     * @return The consent.
+     * @throws ResourceNotFoundException if the consent is not found.
+     */
+    private ConsentSnapshot findSnapshot(String consentId, Operation operation) {
+        ConsentSnapshot snapshot = metrics.time(operation, Stage.PERSISTENCE, () -> consentCache.get(consentId,
+                id -> readRouting.read(List.of(id), () -> queryRepository.findSnapshotById(id)).orElse(null)));
+        if (snapshot == null) {
             throw new ResourceNotFoundException("Consent not found with ID: " + consentId);
         }
-        repository.deleteById(consentId);
+        return snapshot;
     }
 
     /**
-     * Helper method to map a JPA entity to the OpenAPI response DTO.
+     * Helper method to read several consents, from the cache when possible and with a single query otherwise.
      *
-     * @param entity The AccountAccessConsent entity.
-     * @return The OBReadConsentResponse5 DTO.
+     * @param consentIds The IDs of the consents, may contain duplicates.
+     * @param operation  The operation reading the consents.
+     * @return The consents found, by ID.
      */
-    private OBReadConsentResponse5 mapEntityToResponse(AccountAccessConsent entity) {
-        OBReadConsentResponse5 response = new OBReadConsentResponse5();
-        OBReadConsentResponse5Data
-                responseData = new OBReadConsentResponse5Data
-                ();
-        responseData.setConsentId(entity.getConsentId());
-        responseData.setStatus(OBReadConsentResponse5Data
-                .StatusEnum.fromValue(entity.getStatus()));
-        responseData.setCreationDateTime(entity.getCreationDateTime());
-        responseData.setStatusUpdateDateTime(entity.getStatusUpdateDateTime());
-        responseData.setExpirationDateTime(entity.getExpirationDateTime());
+    private Map<String, ConsentSnapshot> findSnapshots(Collection<String> consentIds, Operation operation) {
+        return metrics.time(operation, Stage.PERSISTENCE, () -> {
+            Set<String> uniqueIds = new LinkedHashSet<>(consentIds);
+            Map<String, ConsentSnapshot> snapshots = new HashMap<>(consentCache.getAllPresent(uniqueIds));
+            uniqueIds.removeAll(snapshots.keySet());
+            for (ConsentSnapshot snapshot : readRouting.read(uniqueIds, () -> queryRepository.findSnapshotsByIds(uniqueIds))) {
+                consentCache.put(snapshot);
+                snapshots.put(snapshot.consentId(), snapshot);
+            }
+            return snapshots;
+        });
+    }
 
-        List<OBReadConsentResponse5Data
-                .PermissionsEnum> permissions =
-                Arrays.stream(entity.getPermissions().split(","))
-                        .map(OBReadConsentResponse5Data
-                                .PermissionsEnum::fromValue)
-                        .collect(Collectors.toList());
-        responseData.setPermissions(permissions);
+    /**
+     * Helper method to map a valid creation request to a new JPA entity.
+     *
+     * @param requestBody The validated request body.
+     * @param operation   The operation creating the consent.
+     * @return The new AccountAccessConsent entity, not yet persisted.
+     */
+    private AccountAccessConsent buildNewConsent(OBWriteDomesticConsent4 requestBody, Operation operation) {
+        // Business Logic: Generate a unique, immutable consent ID.
+        String consentId = metrics.time(operation, Stage.ID_GENERATION, consentIdGenerator::generate);
+        // Consents are created at the timestamp of time-ordered IDs, lookups by ID derive the partition from it.
+        OffsetDateTime now = TimeOrderedConsentIdGenerator.timestampOf(consentId)
+                .map(timestamp -> OffsetDateTime.ofInstant(timestamp, ZoneId.systemDefault()))
+                .orElseGet(OffsetDateTime::now);
 
-        response.setData(responseData);
+        // Storing the full request body as JSON for immutability and record-keeping.
+        String requestJson = metrics.time(operation, Stage.SERIALIZATION, () -> serializeRequestBody(requestBody));
+        return metrics.time(operation, Stage.MAPPING, () -> consentMapper.toEntity(requestBody, consentId, now, requestJson));
+    }
+
+    /**
+     * Helper method to serialize a creation request to JSON with the application ObjectMapper.
+     *
+     * @param requestBody The request body.
+     * @return The JSON representation of the request body.
+     */
+    private String serializeRequestBody(OBWriteDomesticConsent4 requestBody) {
+        try {
+            return objectMapper.writeValueAsString(requestBody);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the consent request body", ex);
+        }
+    }
+
+    /**
+     * Helper method to store a new consent together with its idempotency key, in the current transaction,
+     * unless an earlier request holds the key.
+     *
+     * @param newConsent     The new consent, not yet persisted.
+     * @param idempotencyKey The idempotency key of the request.
+     * @param record         The outcome of the request, stored with the key.
+     * @return The outcome of the earlier request with the key, or null if the new consent was stored.
+     */
+    private IdempotencyRecord createIdempotentConsent(AccountAccessConsent newConsent, String idempotencyKey,
+                                                      IdempotencyRecord record) {
+        IdempotencyRecord earlier = idempotencyStore.find(idempotencyKey);
+        if (earlier == null && !idempotencyStore.record(idempotencyKey, record)) {
+            // A concurrent request with the same key committed first.
+            earlier = idempotencyStore.find(idempotencyKey);
+        }
+        if (earlier != null) {
+            return earlier;
+        }
+        repository.save(newConsent);
+        appendCreated(newConsent);
+        return null;
+    }
+
+    /**
+     * Helper method to append the creation event of a new consent to the outbox, in the current transaction.
+     *
+     * @param newConsent The new consent.
+     */
+    private void appendCreated(AccountAccessConsent newConsent) {
+        outboxRepository.append(newConsent.getConsentId(), newConsent.getStatus(), newConsent.getStatusUpdateDateTime());
+    }
+
+    /**
+     * Helper method to map a created consent to the response DTO, and keep it warm for the upcoming reads.
+     *
+     * @param newConsent The created consent.
+     * @return The response object for the created consent.
+     */
+    private OBReadConsentResponse5 cacheCreatedConsent(AccountAccessConsent newConsent) {
+        return metrics.time(Operation.CREATE, Stage.MAPPING, () -> {
+            ConsentSnapshot snapshot = consentMapper.toSnapshot(newConsent);
+            consentCache.put(snapshot);
+            return consentMapper.toResponse(snapshot);
+        });
+    }
+
+    /**
+     * Helper method to answer a request repeating an earlier one with the consent the earlier request created.
+     *
+     * @param idempotencyKey The idempotency key of both requests.
+     * @param earlier        The outcome of the earlier request.
+     * @param requestHash    The hash of the body of the repeated request.
+     * @return The response object for the consent created by the earlier request.
+     * @throws ConflictException if the request bodies differ.
+     */
+    private OBReadConsentResponse5 replayConsent(String idempotencyKey, IdempotencyRecord earlier, String requestHash) {
+        if (!earlier.requestHash().equals(requestHash)) {
+            throw new ConflictException(HEADER_INVALID,
+                    "The x-idempotency-key " + idempotencyKey + " was already used with a different request body.");
+        }
+        return getConsentById(earlier.consentId());
+    }
+
+    /**
+     * Helper method to hash a serialized request body, so that repeated requests can be compared.
+     *
+     * @param requestBody The JSON representation of the request body.
+     * @return The SHA-256 hash of the request body, hex encoded.
+     */
+    private static String hashRequestBody(String requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(requestBody.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Private helper method to validate the idempotency key of a creation request.
+     *
+     * @param idempotencyKey The idempotency key, may be null.
+     * @throws InvalidRequestException if the key is blank or too long.
+     */
+    private void validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH)) {
+            throw new InvalidRequestException("x-idempotency-key must be between 1 and "
+                    + IDEMPOTENCY_KEY_MAX_LENGTH + " characters.");
+        }
+    }
+
+    /**
+     * Private helper method to validate the number of items of a bulk request.
+     *
+     * @param items The items of the bulk request.
+     * @throws InvalidRequestException if there are no items, or more than the configured maximum.
+     */
+    private void validateBulkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("At least one item must be provided.");
+        }
+        if (items.size() > bulkProperties.maxItems()) {
+            throw new InvalidRequestException("At most " + bulkProperties.maxItems() + " items can be provided.");
+        }
+    }
+
+    private static OBReadConsentResponse5Data.PermissionsEnum parsePermission(String permission) {
+        try {
+            return permission == null ? null : ConsentPermissions.fromValue(permission);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unknown Permission: " + permission);
+        }
+    }
+
+    private static OBConsentBulkResult bulkError(int index, String consentId, HttpStatus status, String errorCode, String message) {
+        return new OBConsentBulkResult(index, status.value())
+                .consentId(consentId)
+                .error(new OBError1(errorCode, message));
+    }
+
+    private static OBConsentBulkResponse bulkResponse(List<OBConsentBulkResult> results) {
+        return new OBConsentBulkResponse(new OBConsentBulkResponseData(results));
+    }
 
-        return response;
+    /**
+     * Private helper method to validate a status change against the consent lifecycle.
+     *
+     * @param current   The consent as currently stored.
+     * @param newStatus The requested status.
+     * @param now       The date and time of the status change.
+     * @throws ConflictException if the consent cannot move to the requested status.
+     */
+    private void validateStatusTransition(ConsentSnapshot current, OBReadConsentResponse5Data.StatusEnum newStatus,
+                                          OffsetDateTime now) {
+        if (!ConsentStatusTransitions.isAllowed(current.status(), newStatus)) {
+            throw new ConflictException(INVALID_CONSENT_STATUS, "Consent " + current.consentId() + " cannot move from "
+                    + current.status().getValue() + " to " + newStatus.getValue() + ".");
+        }
+        // Not swept yet, but already past its expiration date and time.
+        if (newStatus == OBReadConsentResponse5Data.StatusEnum.AUTHORISED && current.isExpiredAt(now)) {
+            throw new ConflictException(INVALID_CONSENT_STATUS, "Consent " + current.consentId() + " has expired and cannot be authorised.");
+        }
     }
 
     /**
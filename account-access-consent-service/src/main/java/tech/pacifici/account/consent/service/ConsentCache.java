@@ -0,0 +1,196 @@
+package tech.pacifici.account.consent.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.pacifici.account.consent.config.ConsentCacheProperties;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded, read-through cache of consent snapshots keyed by consent ID.
+ * Entries are evicted by size and after the configured time to live, and never outlive
+ * the expiration date and time of the consent they represent.
+ * Hit, miss and eviction statistics are published to the Micrometer registry under the "consents" cache name.
+ * <p>
+ * Misses are loaded on the calling thread, outside of any cache lock. Caffeine computes loads while holding
+ * a map bin monitor, which pins a virtual thread to its carrier for the whole database round-trip.
+ * Concurrent misses for the same consent share a single load through an in-flight future, and a consent
+ * evicted while it is loading is not repopulated with the stale result.
+ */
+@Component
+public class ConsentCache {
+
+    static final String CACHE_NAME = "consents";
+
+    private final Cache<String, ConsentSnapshot> cache;
+    private final Map<String, CompletableFuture<ConsentSnapshot>> loads = new ConcurrentHashMap<>();
+
+    public ConsentCache(ConsentCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new ConsentExpiry(properties.timeToLive()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached snapshot for the given consent, loading it on a miss.
+     *
+     * @param consentId The ID of the consent.
+     * @param loader    Function used to load the snapshot on a cache miss; may return null if the consent does not exist.
+     * @return The snapshot, or null if the consent does not exist.
+     */
+    public ConsentSnapshot get(String consentId, Function<String, ConsentSnapshot> loader) {
+        ConsentSnapshot cached = cache.getIfPresent(consentId);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<ConsentSnapshot> loading = new CompletableFuture<>();
+        CompletableFuture<ConsentSnapshot> inFlight = loads.putIfAbsent(consentId, loading);
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+        try {
+            ConsentSnapshot snapshot = loader.apply(consentId);
+            // Only cached if the load was not evicted meanwhile, evict removes the in-flight load under the same lock.
+            loads.computeIfPresent(consentId, (id, current) -> {
+                if (current == loading && snapshot != null) {
+                    cache.put(id, snapshot);
+                }
+                return current == loading ? null : current;
+            });
+            loading.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException ex) {
+            loads.remove(consentId, loading);
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the cached snapshots for the given consents, without loading the missing ones.
+     *
+     * @param consentIds The IDs of the consents.
+     * @return The cached snapshots keyed by consent ID.
+     */
+    public Map<String, ConsentSnapshot> getAllPresent(Collection<String> consentIds) {
+        return cache.getAllPresent(consentIds);
+    }
+
+    /**
+     * Stores a snapshot, replacing any previous entry for the same consent.
+     *
+     * @param snapshot The snapshot to store.
+     */
+    public void put(ConsentSnapshot snapshot) {
+        cache.put(snapshot.consentId(), snapshot);
+    }
+
+    /**
+     * Stores snapshots of consents written by the current transaction once it has committed, so that a consent
+     * rolled back is never served, nor one not yet visible in the database. Outside of a transaction they are
+     * stored right away.
+     *
+     * @param snapshots The snapshots to store.
+     */
+    public void putAllAfterCommit(List<ConsentSnapshot> snapshots) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshots.forEach(this::put);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshots.forEach(ConsentCache.this::put);
+            }
+        });
+    }
+
+    /**
+     * Removes the entry for the given consent, if present.
+     *
+     * @param consentId The ID of the consent to evict.
+     */
+    public void evict(String consentId) {
+        loads.remove(consentId);
+        cache.invalidate(consentId);
+    }
+
+    /**
+     * Removes the entries for all the given consents.
+     *
+     * @param consentIds The IDs of the consents to evict.
+     */
+    public void evictAll(Collection<String> consentIds) {
+        for (String consentId : consentIds) {
+            loads.remove(consentId);
+        }
+        cache.invalidateAll(consentIds);
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void clear() {
+        loads.clear();
+        cache.invalidateAll();
+    }
+
+    private static ConsentSnapshot join(CompletableFuture<ConsentSnapshot> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Caps the lifetime of every entry to the time to live and to the consent expiration date and time,
+     * so that an expired consent is never served from memory.
+     */
+    private record ConsentExpiry(Duration timeToLive) implements Expiry<String, ConsentSnapshot> {
+
+        @Override
+        public long expireAfterCreate(String consentId, ConsentSnapshot snapshot, long currentTime) {
+            if (snapshot.expirationDateTime() == null) {
+                return timeToLive.toNanos();
+            }
+            Duration untilExpiration = Duration.between(OffsetDateTime.now(), snapshot.expirationDateTime());
+            if (untilExpiration.isNegative()) {
+                return 0;
+            }
+            // Compare before converting, a consent may expire far beyond the range of a nanosecond long.
+            return untilExpiration.compareTo(timeToLive) < 0 ? untilExpiration.toNanos() : timeToLive.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String consentId, ConsentSnapshot snapshot, long currentTime, long currentDuration) {
+            return expireAfterCreate(consentId, snapshot, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String consentId, ConsentSnapshot snapshot, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
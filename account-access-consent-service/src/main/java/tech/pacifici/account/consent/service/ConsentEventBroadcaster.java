@@ -0,0 +1,146 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tech.pacifici.account.consent.config.ConsentOutboxProperties;
+import tech.pacifici.account.consent.domain.DeliveredConsentEvent;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the consent events delivered by the outbox relay to the server-sent event streams subscribed on this replica.
+ * The streams read the delivered events kept in the outbox, in the order of their position, rather than being fed
+ * by the relay: every subscriber receives every event whichever replica relayed it, and nothing is lost when a
+ * replica has no subscriber.
+ * <p>
+ * Each event is sent as a consent-status event whose id is its position. A subscriber reconnecting with the
+ * Last-Event-ID header resumes after that position, as long as the events are still kept (consent.outbox.retention),
+ * a new subscriber starts with the events delivered after it subscribed. A subscriber that cannot be written to is
+ * dropped, it resumes when it reconnects. Reading the outbox is skipped while the database admission limiter is full.
+ */
+@Slf4j
+@Component
+public class ConsentEventBroadcaster {
+
+    static final String EVENT_NAME = "consent-status";
+
+    private final ConsentOutboxProperties properties;
+    private final ConsentOutboxRepository outboxRepository;
+    private final ConsentMapper consentMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public ConsentEventBroadcaster(ConsentOutboxProperties properties, ConsentOutboxRepository outboxRepository,
+                                   ConsentMapper consentMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.outboxRepository = outboxRepository;
+        this.consentMapper = consentMapper;
+        Gauge.builder("consent.events.subscribers", subscribers, Set::size)
+                .description("Consent event streams open on this replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a new event stream, closed by the server after the subscriber timeout.
+     *
+     * @param lastEventId The position of the last event the subscriber received, null for a new subscriber.
+     * @return The event stream.
+     * @throws TooManyRequestsException if the maximum number of subscribers is reached.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscribers.size() >= properties.maxSubscribers()) {
+            throw new TooManyRequestsException("Too many consent event subscribers.");
+        }
+        long position = lastEventId != null ? lastEventId : outboxRepository.findLastPosition();
+        Subscriber subscriber = new Subscriber(new SseEmitter(properties.subscriberTimeout().toMillis()), position);
+        subscriber.emitter().onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter().onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter();
+    }
+
+    /**
+     * Sends the events delivered since the last run to every subscriber, scheduled with a fixed delay between
+     * the end of a run and the start of the next one. Reads at most the configured number of batches per run.
+     */
+    @Scheduled(fixedDelayString = "${consent.outbox.interval:500ms}", initialDelayString = "${consent.outbox.interval:500ms}")
+    public void publish() {
+        try {
+            for (int batch = 0; batch < properties.maxBatches(); batch++) {
+                long from = subscribers.stream().mapToLong(Subscriber::position).min().orElse(Long.MAX_VALUE);
+                if (from == Long.MAX_VALUE) {
+                    return;
+                }
+                List<DeliveredConsentEvent> events = outboxRepository.findDeliveredAfter(from, properties.batchSize());
+                subscribers.forEach(subscriber -> send(subscriber, events));
+                if (events.size() < properties.batchSize()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException ex) {
+            if (TooManyRequestsException.findIn(ex).isPresent()) {
+                log.debug("Consent event streams not updated, all database connections are in use");
+                return;
+            }
+            log.warn("Consent event streams not updated, retrying in {}", properties.interval(), ex);
+        }
+    }
+
+    /**
+     * Sends the events following its position to a subscriber, in order.
+     */
+    private void send(Subscriber subscriber, List<DeliveredConsentEvent> events) {
+        try {
+            for (DeliveredConsentEvent event : events) {
+                if (event.position() <= subscriber.position()) {
+                    continue;
+                }
+                subscriber.emitter().send(SseEmitter.event()
+                        .id(Long.toString(event.position()))
+                        .name(EVENT_NAME)
+                        .data(consentMapper.toEvent(event.event()), MediaType.APPLICATION_JSON));
+                subscriber.advanceTo(event.position());
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping consent event subscriber", ex);
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(ex);
+        }
+    }
+
+    /**
+     * An open event stream.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Only advanced by the publishing thread, read when choosing where the next run starts.
+        private volatile long position;
+
+        private Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        long position() {
+            return position;
+        }
+
+        void advanceTo(long position) {
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package tech.pacifici.account.consent.service;
+
+import tech.pacifici.account.consent.domain.ConsentEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the consent events relayed from the outbox, e.g. a message broker.
+ * Optional: without such a bean the events are only published to the consent event streams of the
+ * {@link ConsentEventBroadcaster}, which read them from the outbox.
+ * <p>
+ * Delivery is at least once: a batch is marked delivered in the outbox only after it was delivered, and a batch whose
+ * delivery fails, or whose marking does not commit, is delivered again by a later relay run. The events are not
+ * locked while being delivered, two replicas may deliver the same batch, and such a repeated event can arrive after
+ * a later event of its consent. Consumers discard events whose event ID they already saw, or that is lower than the
+ * last one they applied for the consent.
+ */
+@FunctionalInterface
+public interface ConsentEventSink {
+
+    /**
+     * Delivers a batch of events, returning only once they are safely handed over.
+     * The batch holds at most one event per consent, events of different consents in any order.
+     *
+     * @param events The events, in event ID order.
+     * @throws RuntimeException if the events could not be delivered, they stay in the outbox.
+     */
+    void deliver(List<ConsentEvent> events);
+}
@@ -0,0 +1,140 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.pacifici.account.consent.config.ConsentExpiryProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentExpiryRepository;
+import tech.pacifici.account.consent.repository.ConsentExpiryRepository.SweptConsent;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job moving consents past their expiration date and time to the Expired status, and optionally
+ * purging consents that reached a final status longer ago than the retention period.
+ * <p>
+ * Every replica runs the sweeper: batches lock their rows with SKIP LOCKED, so replicas share the work.
+ * Each batch commits on its own, and the expired consents are evicted from the cache of every replica.
+ * A sweep stops after the configured number of batches, any backlog is picked up by the next sweep.
+ * When the database admission limiter is full the sweep is skipped, request traffic comes first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "consent.expiry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConsentExpirySweeper {
+
+    private final ConsentExpiryProperties properties;
+    private final ConsentExpiryRepository expiryRepository;
+    private final ConsentInvalidationBus invalidationBus;
+    private final Counter expiredConsents;
+    private final Counter purgedConsents;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public ConsentExpirySweeper(ConsentExpiryProperties properties,
+                                ConsentExpiryRepository expiryRepository,
+                                ConsentInvalidationBus invalidationBus,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expiryRepository = expiryRepository;
+        this.invalidationBus = invalidationBus;
+        this.expiredConsents = Counter.builder("consent.expiry.expired")
+                .description("Consents marked Expired by the expiry sweeper")
+                .register(meterRegistry);
+        this.purgedConsents = Counter.builder("consent.expiry.purged")
+                .description("Consents in a final status deleted by the expiry sweeper")
+                .register(meterRegistry);
+        Gauge.builder("consent.expiry.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Time since the oldest consent still waiting to be marked Expired became due")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a sweep, scheduled with a fixed delay between the end of a sweep and the start of the next one.
+     */
+    @Scheduled(fixedDelayString = "${consent.expiry.interval:30s}", initialDelayString = "${consent.expiry.interval:30s}")
+    public void sweep() {
+        OffsetDateTime now = OffsetDateTime.now();
+        try {
+            int expired = expire(now);
+            int purged = properties.purgeEnabled() ? purge(now.minus(properties.purgeRetention())) : 0;
+            updateLag(now);
+            if (expired > 0 || purged > 0) {
+                log.info("Expiry sweep expired {} and purged {} consents", expired, purged);
+            }
+        } catch (RuntimeException ex) {
+            // Rejections of a transaction start arrive wrapped in a CannotCreateTransactionException.
+            if (TooManyRequestsException.findIn(ex).isPresent()) {
+                log.debug("Expiry sweep skipped, all database connections are in use");
+            } else if (ex instanceof DataAccessException) {
+                log.warn("Expiry sweep failed, retrying in {}", properties.interval(), ex);
+            } else {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Marks the consents due at the given date and time Expired, batch by batch.
+     *
+     * @param now The current date and time.
+     * @return The number of expired consents.
+     */
+    int expire(OffsetDateTime now) {
+        int total = 0;
+        SweptConsent cursor = null;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            List<SweptConsent> expired = expiryRepository.expireBatch(now, cursor, properties.batchSize());
+            if (expired.isEmpty()) {
+                break;
+            }
+            invalidationBus.publishAll(expired.stream().map(SweptConsent::consentId).toList());
+            expiredConsents.increment(expired.size());
+            total += expired.size();
+            if (expired.size() < properties.batchSize()) {
+                break;
+            }
+            cursor = expired.getLast();
+        }
+        return total;
+    }
+
+    /**
+     * Deletes the consents that reached a final status before the given cutoff, batch by batch.
+     *
+     * @param cutoff The date and time before which consents in a final status are deleted.
+     * @return The number of deleted consents.
+     */
+    int purge(OffsetDateTime cutoff) {
+        int total = 0;
+        SweptConsent cursor = null;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            List<SweptConsent> purged = expiryRepository.purgeBatch(cutoff, cursor, properties.batchSize());
+            if (purged.isEmpty()) {
+                break;
+            }
+            invalidationBus.publishAll(purged.stream().map(SweptConsent::consentId).toList());
+            purgedConsents.increment(purged.size());
+            total += purged.size();
+            if (purged.size() < properties.batchSize()) {
+                break;
+            }
+            cursor = purged.getLast();
+        }
+        return total;
+    }
+
+    private void updateLag(OffsetDateTime now) {
+        OffsetDateTime oldestDue = expiryRepository.findOldestDueExpiration(now);
+        lagMillis.set(oldestDue == null ? 0 : Duration.between(oldestDue, now).toMillis());
+    }
+}
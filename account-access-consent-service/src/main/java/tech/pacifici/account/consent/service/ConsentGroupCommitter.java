@@ -0,0 +1,214 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tech.pacifici.account.consent.config.ConsentGroupCommitProperties;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentBatchInsertRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit of consent creations.
+ * Concurrent creations are queued and a single flusher thread inserts them with one multi-row INSERT,
+ * so that a whole batch shares one commit. A batch is flushed when it is full, or when the window has elapsed
+ * since its first creation was taken from the queue; creations queued while a batch is being written are
+ * picked up by the next one. Every caller blocks until the batch holding its consent has committed, which keeps
+ * the durability of a commit per request.
+ * <p>
+ * The committer starts before and stops after the web server, draining the queue on shutdown.
+ * Batch sizes are published as consent.group-commit.batch.size and the time spent queued as
+ * consent.group-commit.queue.wait.
+ */
+@Slf4j
+@Component
+public class ConsentGroupCommitter implements SmartLifecycle {
+
+    // How often an idle flusher checks whether it has been stopped.
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final ConsentGroupCommitProperties properties;
+    private final ConsentBatchInsertRepository insertRepository;
+    private final BlockingQueue<PendingInsert> queue;
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+
+    private volatile boolean running;
+    private Thread flusherThread;
+
+    public ConsentGroupCommitter(ConsentGroupCommitProperties properties,
+                                 ConsentBatchInsertRepository insertRepository,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.insertRepository = insertRepository;
+        this.queue = new LinkedBlockingQueue<>(properties.queueCapacity());
+        this.batchSize = DistributionSummary.builder("consent.group-commit.batch.size")
+                .description("Consents inserted by one group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("consent.group-commit.queue.wait")
+                .description("Time a consent creation waited in the queue before its batch was written")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("consent.group-commit.queue.size", queue, BlockingQueue::size)
+                .description("Consent creations waiting for the next group commit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether consent creations should go through the group commit.
+     *
+     * @return true if group commit is enabled.
+     */
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * Inserts a new consent as part of the next batch, and waits until the batch has committed.
+     *
+     * @param consent The new consent.
+     * @throws TooManyRequestsException if the queue is full.
+     */
+    public void insert(AccountAccessConsent consent) {
+        if (!running) {
+            insertRepository.insertAll(List.of(consent));
+            return;
+        }
+        PendingInsert pending = new PendingInsert(consent, System.nanoTime(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new TooManyRequestsException("Too many consent creations are waiting to be committed.");
+        }
+        // Stopped in between, the flusher may already have drained the queue. Whichever takes the creation back
+        // out of the queue handles it, either inserting it here or failing it in the flusher.
+        if (!running && queue.remove(pending)) {
+            insertRepository.insertAll(List.of(consent));
+            return;
+        }
+        try {
+            pending.committed().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        flusherThread = Thread.ofPlatform()
+                .name("consent-group-commit")
+                .daemon(true)
+                .start(this::flushLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusherThread != null) {
+            try {
+                flusherThread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            flusherThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below the web server phases: started before requests are accepted, stopped once they are drained.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Flusher loop, collects batches from the queue and writes them until stopped and drained.
+     * Creations still queued once it exits, queued past the drain or left by an interrupt, are failed.
+     */
+    private void flushLoop() {
+        List<PendingInsert> batch = new ArrayList<>(properties.maxBatchSize());
+        long windowNanos = properties.window().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < properties.maxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingInsert next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                // New creations are inserted by their callers from now on.
+                running = false;
+                batch.forEach(pending -> pending.committed().completeExceptionally(
+                        new IllegalStateException("Consent group commit interrupted")));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        List<PendingInsert> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> pending.committed().completeExceptionally(
+                new IllegalStateException("Consent group commit stopped")));
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        long flushStart = System.nanoTime();
+        List<AccountAccessConsent> consents = new ArrayList<>(batch.size());
+        for (PendingInsert pending : batch) {
+            queueWait.record(flushStart - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            consents.add(pending.consent());
+        }
+        batchSize.record(batch.size());
+        try {
+            insertRepository.insertAll(consents);
+        } catch (RuntimeException ex) {
+            log.warn("Group commit of {} consents failed", batch.size(), ex);
+            batch.forEach(pending -> pending.committed().completeExceptionally(ex));
+            return;
+        }
+        batch.forEach(pending -> pending.committed().complete(null));
+    }
+
+    /**
+     * A queued consent creation.
+     *
+     * @param consent    The new consent.
+     * @param enqueuedAt The System.nanoTime() at which the creation was queued.
+     * @param committed  Completed once the batch holding the consent has committed.
+     */
+    private record PendingInsert(AccountAccessConsent consent, long enqueuedAt, CompletableFuture<Void> committed) {
+    }
+}
@@ -0,0 +1,242 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.pacifici.account.consent.config.ConsentInvalidationProperties;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Cross-node invalidation bus for the {@link ConsentCache}, built on PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Changed consent IDs are sent with pg_notify on the application datasource. Inside a transaction the IDs
+ * are collected and sent as a single notification just before commit, so PostgreSQL only delivers them
+ * if the change is committed. Every replica listens on a dedicated connection, outside the connection pool,
+ * and evicts all the IDs received in one poll at once. Whenever the listener (re)connects the whole local
+ * cache is flushed, since notifications sent while it was disconnected are lost.
+ * Published and received IDs are also recorded by the {@link ConsentReadRouting}, so that the next reads of the
+ * changed consents go to the primary rather than to a read replica that may not have the change yet.
+ */
+@Slf4j
+@Component
+public class ConsentInvalidationBus implements SmartLifecycle {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final String SEPARATOR = ",";
+    // PostgreSQL rejects payloads of 8000 bytes or more.
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final ConsentInvalidationProperties properties;
+    private final ConsentCache consentCache;
+    private final ConsentReadRouting readRouting;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final Counter receivedInvalidations;
+    private final Counter fullFlushes;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public ConsentInvalidationBus(ConsentInvalidationProperties properties,
+                                  ConsentCache consentCache,
+                                  ConsentReadRouting readRouting,
+                                  JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  MeterRegistry meterRegistry) {
+        if (!CHANNEL_NAME.matcher(properties.channel()).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + properties.channel());
+        }
+        this.properties = properties;
+        this.consentCache = consentCache;
+        this.readRouting = readRouting;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.receivedInvalidations = Counter.builder("consent.cache.invalidations")
+                .description("Consent IDs evicted after a notification from any replica")
+                .register(meterRegistry);
+        this.fullFlushes = Counter.builder("consent.cache.invalidation.flushes")
+                .description("Full cache flushes after the invalidation listener (re)connected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Notifies every replica that the given consent has changed, including the local one.
+     * Inside a transaction the notification is deferred until just before commit and batched with the
+     * other consents changed by the same transaction, and the local cache is evicted again after commit.
+     *
+     * @param consentId The ID of the changed consent.
+     */
+    public void publish(String consentId) {
+        publishAll(List.of(consentId));
+    }
+
+    /**
+     * Notifies every replica that the given consents have changed.
+     *
+     * @param consentIds The IDs of the changed consents.
+     */
+    public void publishAll(Collection<String> consentIds) {
+        if (consentIds.isEmpty()) {
+            return;
+        }
+        readRouting.recordWrites(consentIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consentCache.evictAll(consentIds);
+            send(consentIds);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> transactionPending = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, transactionPending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(transactionPending);
+                }
+
+                @Override
+                public void afterCommit() {
+                    // Evict again locally, a concurrent read may have reloaded the uncommitted state.
+                    consentCache.evictAll(transactionPending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ConsentInvalidationBus.this);
+                }
+            });
+            pending = transactionPending;
+        }
+        pending.addAll(consentIds);
+    }
+
+    /**
+     * Sends the consent IDs as comma separated pg_notify payloads, split to stay below the PostgreSQL limit.
+     */
+    private void send(Collection<String> consentIds) {
+        if (!properties.enabled()) {
+            return;
+        }
+        StringBuilder payload = new StringBuilder();
+        for (String consentId : consentIds) {
+            if (!payload.isEmpty() && payload.length() + consentId.length() >= MAX_PAYLOAD_LENGTH) {
+                sendNotification(payload.toString());
+                payload.setLength(0);
+            }
+            if (!payload.isEmpty()) {
+                payload.append(SEPARATOR);
+            }
+            payload.append(consentId);
+        }
+        if (!payload.isEmpty()) {
+            sendNotification(payload.toString());
+        }
+    }
+
+    private void sendNotification(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, properties.channel(), payload);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("consent-invalidation-listener")
+                .daemon(true)
+                .start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Listener loop, keeps a dedicated connection subscribed to the channel and reconnects on failure.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                // Anything may have changed while nobody was listening.
+                consentCache.clear();
+                fullFlushes.increment();
+                log.info("Listening for consent invalidations on channel '{}'", properties.channel());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeoutMillis = (int) properties.pollTimeout().toMillis();
+                while (running) {
+                    evict(pgConnection.getNotifications(pollTimeoutMillis));
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Consent invalidation listener disconnected, reconnecting in {}", properties.reconnectDelay(), ex);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void evict(PGNotification[] notifications) {
+        if (notifications == null || notifications.length == 0) {
+            return;
+        }
+        List<String> consentIds = new ArrayList<>();
+        for (PGNotification notification : notifications) {
+            for (String consentId : notification.getParameter().split(SEPARATOR)) {
+                if (!consentId.isEmpty()) {
+                    consentIds.add(consentId);
+                }
+            }
+        }
+        consentCache.evictAll(consentIds);
+        readRouting.recordWrites(consentIds);
+        receivedInvalidations.increment(consentIds.size());
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.reconnectDelay());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
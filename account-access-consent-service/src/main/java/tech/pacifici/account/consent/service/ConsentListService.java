@@ -0,0 +1,164 @@
+package tech.pacifici.account.consent.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import tech.pacifici.account.consent.config.ConsentListProperties;
+import tech.pacifici.account.consent.domain.ConsentListCursor;
+import tech.pacifici.account.consent.domain.ConsentListQuery;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+import tech.pacifici.account.consent.domain.InvalidRequestException;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+
+/**
+ * Service listing account access consents, page by page.
+ * A page is read with one keyset paginated query and serialized as JSON while the rows are fetched, so the rows are
+ * never held in memory as a whole. The serialized page, bounded by the maximum page size, is buffered and only written
+ * to the client once the query is done: no connection, nor admission permit, is held while a slow client reads.
+ * One row beyond the page size is read to know whether a next page exists, without counting.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConsentListService {
+
+    private final ConsentQueryRepository queryRepository;
+    private final ConsentMapper consentMapper;
+    private final ConsentListProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validates the parameters of a list request, before anything is written to the response.
+     *
+     * @param status         The status filter, or null.
+     * @param permission     The permission filter, or null.
+     * @param expirationFrom The start of the expiry window, inclusive, or null.
+     * @param expirationTo   The end of the expiry window, exclusive, or null.
+     * @param pageSize       The page size, or null for the default one.
+     * @param cursor         The cursor of the previous page, or null for the first page.
+     * @return The page request.
+     * @throws InvalidRequestException if a parameter is not valid.
+     */
+    public ConsentListQuery prepareQuery(String status, String permission, OffsetDateTime expirationFrom,
+                                         OffsetDateTime expirationTo, Integer pageSize, String cursor) {
+        if (expirationFrom != null && expirationTo != null && !expirationFrom.isBefore(expirationTo)) {
+            throw new InvalidRequestException("ExpirationFrom must be before ExpirationTo.");
+        }
+        int size = pageSize == null ? properties.defaultPageSize() : pageSize;
+        if (size < 1 || size > properties.maxPageSize()) {
+            throw new InvalidRequestException("PageSize must be between 1 and " + properties.maxPageSize() + ".");
+        }
+        ConsentListQuery query = new ConsentListQuery(parseStatus(status), parsePermission(permission),
+                expirationFrom, expirationTo, size, cursor == null ? null : ConsentListCursor.decode(cursor));
+        if (query.cursor() != null && query.cursor().byExpiration() != query.byExpiration()) {
+            throw new InvalidRequestException("The Cursor belongs to a list with different filters.");
+        }
+        return query;
+    }
+
+    /**
+     * Reads a page of the consent list, serialized as an OBReadConsentListResponse.
+     *
+     * @param query The page request.
+     * @return The serialized page.
+     */
+    public byte[] readPage(ConsentListQuery query) {
+        ByteArrayOutputStream page = new ByteArrayOutputStream();
+        try {
+            writePage(query, page);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return page.toByteArray();
+    }
+
+    private void writePage(ConsentListQuery query, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("Data");
+            generator.writeArrayFieldStart("Consents");
+            PageWriter page = new PageWriter(generator, query.pageSize());
+            try {
+                queryRepository.streamSnapshots(query, query.pageSize() + 1, properties.fetchSize(), page::write);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeObjectFieldStart("Meta");
+            if (page.hasNext()) {
+                ConsentSnapshot last = page.last();
+                generator.writeStringField("NextCursor", new ConsentListCursor(query.byExpiration(),
+                        query.byExpiration() ? last.expirationDateTime() : last.creationDateTime(),
+                        last.consentId()).encode());
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    private static StatusEnum parseStatus(String status) {
+        try {
+            return status == null ? null : ConsentStatuses.fromValue(status);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unknown Status: " + status);
+        }
+    }
+
+    private static PermissionsEnum parsePermission(String permission) {
+        try {
+            return permission == null ? null : ConsentPermissions.fromValue(permission);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Unknown Permission: " + permission);
+        }
+    }
+
+    /**
+     * Writes the consents of a page as they are read, and remembers whether a row beyond the page was read.
+     */
+    private final class PageWriter {
+
+        private final JsonGenerator generator;
+        private final int pageSize;
+        private int written;
+        private ConsentSnapshot last;
+        private boolean next;
+
+        private PageWriter(JsonGenerator generator, int pageSize) {
+            this.generator = generator;
+            this.pageSize = pageSize;
+        }
+
+        private void write(ConsentSnapshot snapshot) {
+            if (written == pageSize) {
+                next = true;
+                return;
+            }
+            try {
+                generator.writeObject(consentMapper.toResponse(snapshot));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            last = snapshot;
+            written++;
+        }
+
+        private boolean hasNext() {
+            return next;
+        }
+
+        private ConsentSnapshot last() {
+            return last;
+        }
+    }
+}
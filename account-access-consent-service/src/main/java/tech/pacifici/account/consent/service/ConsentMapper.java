@@ -0,0 +1,128 @@
+package tech.pacifici.account.consent.service;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.Named;
+import org.mapstruct.ReportingPolicy;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentEvent;
+import tech.pacifici.account.consent.domain.ConsentPermissions;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentStatuses;
+import tech.pacifici.model.OBConsentEvent;
+import tech.pacifici.model.OBConsentValidation;
+import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBReadConsentResponse5Data;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps account access consents between the creation request, the JPA entity, the cached snapshot and the
+ * OpenAPI response DTO. The implementation is generated by MapStruct at compile time, plain getter and setter
+ * calls without reflection. Statuses and permissions are converted with the lookup tables of
+ * {@link ConsentStatuses} and {@link ConsentPermissions} rather than the generated fromValue methods.
+ * Every target property must be mapped or explicitly ignored, so that a field added to the OpenAPI spec fails
+ * the build instead of being silently left out.
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ConsentMapper {
+
+    /**
+     * Maps a validated creation request to a new JPA entity, awaiting authorisation.
+     *
+     * @param requestBody      The validated request body.
+     * @param consentId        The ID of the new consent.
+     * @param creationDateTime The creation date and time, also the first status update.
+     * @param requestJson      The request body serialized as JSON, kept for record-keeping.
+     * @return The new AccountAccessConsent entity, not yet persisted.
+     */
+    @Mapping(target = "consentId", source = "consentId")
+    // Business Logic: Set initial status based on Open Banking UK rules.
+    @Mapping(target = "status", constant = "AwaitingAuthorisation")
+    @Mapping(target = "creationDateTime", source = "creationDateTime")
+    @Mapping(target = "statusUpdateDateTime", source = "creationDateTime")
+    @Mapping(target = "expirationDateTime", source = "requestBody.data.expirationDateTime")
+    @Mapping(target = "permissions", source = "requestBody.data.permissions")
+    @Mapping(target = "requestBody", source = "requestJson")
+    @Mapping(target = "version", ignore = true)
+    AccountAccessConsent toEntity(OBWriteDomesticConsent4 requestBody, String consentId,
+                                  OffsetDateTime creationDateTime, String requestJson);
+
+    /**
+     * Maps a JPA entity to an immutable consent snapshot.
+     *
+     * @param entity The AccountAccessConsent entity.
+     * @return The ConsentSnapshot.
+     */
+    ConsentSnapshot toSnapshot(AccountAccessConsent entity);
+
+    /**
+     * Maps a consent snapshot to the OpenAPI response DTO.
+     * A new DTO is built on every call, since the generated model is mutable and must not be shared.
+     *
+     * @param snapshot The ConsentSnapshot.
+     * @return The OBReadConsentResponse5 DTO.
+     */
+    @Mapping(target = "data", source = "snapshot")
+    @Mapping(target = "risk", ignore = true)
+    @Mapping(target = "links", ignore = true)
+    @Mapping(target = "meta", ignore = true)
+    OBReadConsentResponse5 toResponse(ConsentSnapshot snapshot);
+
+    /**
+     * Maps a consent snapshot to the data of the response DTO.
+     *
+     * @param snapshot The ConsentSnapshot.
+     * @return The OBReadConsentResponse5Data DTO.
+     */
+    @Mapping(target = "permissions", qualifiedByName = "sharedPermissions")
+    @Mapping(target = "transactionFromDateTime", ignore = true)
+    @Mapping(target = "transactionToDateTime", ignore = true)
+    OBReadConsentResponse5Data toResponseData(ConsentSnapshot snapshot);
+
+    /**
+     * Maps a consent snapshot to the outcome of its validation, which leaves the permissions out.
+     *
+     * @param snapshot The ConsentSnapshot.
+     * @param valid    Whether the consent passed the validation.
+     * @return The OBConsentValidation DTO.
+     */
+    @Mapping(target = "valid", source = "valid")
+    OBConsentValidation toValidation(ConsentSnapshot snapshot, boolean valid);
+
+    /**
+     * Maps a consent event taken from the outbox to the data of a server-sent event.
+     *
+     * @param event The ConsentEvent.
+     * @return The OBConsentEvent DTO.
+     */
+    OBConsentEvent toEvent(ConsentEvent event);
+
+    default OBReadConsentResponse5Data.StatusEnum toStatus(String status) {
+        return ConsentStatuses.fromValue(status);
+    }
+
+    default Set<PermissionsEnum> toPermissions(List<OBWriteDomesticConsent4Data.PermissionsEnum> permissions) {
+        // Permissions are stored as a bitmask, duplicates collapse.
+        return ConsentPermissions.fromRequest(permissions);
+    }
+
+    default List<PermissionsEnum> toPermissionList(Set<PermissionsEnum> permissions) {
+        return List.copyOf(permissions);
+    }
+
+    /**
+     * The permissions of a snapshot are an immutable list, the response DTO can use it as is instead of a copy:
+     * it is only ever serialized.
+     */
+    @Named("sharedPermissions")
+    default List<PermissionsEnum> sharedPermissions(List<PermissionsEnum> permissions) {
+        return permissions;
+    }
+}
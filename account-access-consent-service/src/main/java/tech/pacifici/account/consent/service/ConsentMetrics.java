@@ -0,0 +1,110 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Metrics of the consent operations, broken down by stage, to see where the latency of a request goes.
+ * The time spent in every stage is published as consent.operation.stage, tagged with the operation and the
+ * stage, and requests rejected because a consent is not found or a request is not valid are counted in
+ * consent.requests.rejected, tagged with the reason. Bulk operations record their per-item stages once per item.
+ * <p>
+ * Timers are registered on first use, so only the stages an operation actually goes through are published.
+ */
+@Component
+public class ConsentMetrics {
+
+    /**
+     * The consent operations, one per service entry point.
+     */
+    public enum Operation {
+        CREATE, CREATE_BULK, GET, GET_BULK, UPDATE_STATUS, REVOKE, VALIDATE, VALIDATE_BULK;
+
+        private final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * The stages of a consent operation.
+     */
+    public enum Stage {
+        VALIDATION, ID_GENERATION, PERSISTENCE, MAPPING, SERIALIZATION;
+
+        private final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * The reasons a request is rejected for.
+     */
+    public enum Rejection {
+        NOT_FOUND, INVALID;
+
+        private final String tag = name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Timer[][] stages = new Timer[Operation.values().length][Stage.values().length];
+    private final Counter[] rejections = new Counter[Rejection.values().length];
+
+    public ConsentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Rejection rejection : Rejection.values()) {
+            rejections[rejection.ordinal()] = Counter.builder("consent.requests.rejected")
+                    .description("Requests, or items of bulk requests, rejected before or while being processed")
+                    .tag("reason", rejection.tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs a stage of an operation and records the time it took, also when it fails.
+     *
+     * @param operation The operation.
+     * @param stage     The stage.
+     * @param work      The stage.
+     * @param <T>       The type of the result.
+     * @return The result of the stage.
+     */
+    public <T> T time(Operation operation, Stage stage, Supplier<T> work) {
+        return timer(operation, stage).record(work);
+    }
+
+    /**
+     * Runs a stage of an operation that has no result and records the time it took, also when it fails.
+     *
+     * @param operation The operation.
+     * @param stage     The stage.
+     * @param work      The stage.
+     */
+    public void time(Operation operation, Stage stage, Runnable work) {
+        timer(operation, stage).record(work);
+    }
+
+    /**
+     * Counts a rejected request, or a rejected item of a bulk request.
+     *
+     * @param rejection The reason of the rejection.
+     */
+    public void rejected(Rejection rejection) {
+        rejections[rejection.ordinal()].increment();
+    }
+
+    private Timer timer(Operation operation, Stage stage) {
+        // Racing threads register the same timer, the registry hands both the same instance.
+        Timer timer = stages[operation.ordinal()][stage.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder("consent.operation.stage")
+                    .description("Time spent in one stage of a consent operation")
+                    .tag("operation", operation.tag)
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            stages[operation.ordinal()][stage.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,133 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.pacifici.account.consent.config.ConsentOutboxProperties;
+import tech.pacifici.account.consent.domain.ConsentEvent;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job relaying the consent outbox to the {@link ConsentEventSink}, if the application has one, and to
+ * the consent event streams, so that downstream systems are pushed the consent changes instead of polling every consent.
+ * <p>
+ * Every replica runs the relay: batches lock their events with SKIP LOCKED, so replicas share the work. A batch is
+ * read in a first short transaction, delivered without holding a connection, and marked delivered by ID in a second
+ * one, which gives the events their position in the consent event streams, see {@link ConsentEventBroadcaster}.
+ * An event is marked only once delivered, and delivered again when the delivery fails or the marking does not
+ * commit. A slow sink only slows the relay down, it never keeps outbox rows locked or a connection checked out.
+ * Delivered events are kept for the retention period, so that stream subscribers can resume, then deleted.
+ * A run stops when the outbox is drained or after the configured number of batches, any backlog is picked up by the
+ * next run. When the database admission limiter is full the run is skipped, request traffic comes first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "consent.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConsentOutboxRelay {
+
+    private final ConsentOutboxProperties properties;
+    private final ConsentOutboxRepository outboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConsentEventSink sink;
+    private final Counter relayedEvents;
+    private final Counter failedBatches;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public ConsentOutboxRelay(ConsentOutboxProperties properties,
+                              ConsentOutboxRepository outboxRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectProvider<ConsentEventSink> sinks,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.outboxRepository = outboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        // Without a sink the events are only published to the event streams, by marking them delivered.
+        this.sink = sinks.getIfAvailable(() -> events -> { });
+        this.relayedEvents = Counter.builder("consent.outbox.relayed")
+                .description("Consent events delivered to the sink and marked delivered in the outbox")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("consent.outbox.failures")
+                .description("Batches of consent events left in the outbox because their delivery failed")
+                .register(meterRegistry);
+        Gauge.builder("consent.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Time since the oldest consent event still waiting in the outbox happened")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the relay, scheduled with a fixed delay between the end of a run and the start of the next one.
+     */
+    @Scheduled(fixedDelayString = "${consent.outbox.interval:500ms}", initialDelayString = "${consent.outbox.interval:500ms}")
+    public void relay() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            int relayed = relayBatches();
+            purgeDelivered(now.minus(properties.retention()));
+            updateLag(now);
+            if (relayed > 0) {
+                log.debug("Outbox relay delivered {} consent events", relayed);
+            }
+        } catch (RuntimeException ex) {
+            // Rejected by the admission limiter, when starting a transaction wrapped in a CannotCreateTransactionException.
+            if (TooManyRequestsException.findIn(ex).isPresent()) {
+                log.debug("Outbox relay skipped, all database connections are in use");
+                return;
+            }
+            failedBatches.increment();
+            log.warn("Outbox relay failed, the undelivered events are retried in {}", properties.interval(), ex);
+        }
+    }
+
+    /**
+     * Delivers the waiting events batch by batch.
+     *
+     * @return The number of delivered events.
+     */
+    int relayBatches() {
+        int total = 0;
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            // Not stopping at a partial batch: events held back behind an older event of their consent are next.
+            List<ConsentEvent> events = transactionTemplate.execute(
+                    status -> outboxRepository.lockBatch(properties.batchSize()));
+            if (events == null || events.isEmpty()) {
+                break;
+            }
+            sink.deliver(events);
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markDelivered(events));
+            relayedEvents.increment(events.size());
+            total += events.size();
+        }
+        return total;
+    }
+
+    /**
+     * Deletes the delivered events that happened before the cutoff, batch by batch.
+     *
+     * @param cutoff The date and time before which delivered events are deleted.
+     */
+    void purgeDelivered(OffsetDateTime cutoff) {
+        for (int batch = 0; batch < properties.maxBatches(); batch++) {
+            if (outboxRepository.deleteDeliveredBefore(cutoff, properties.batchSize()) < properties.batchSize()) {
+                break;
+            }
+        }
+    }
+
+    private void updateLag(OffsetDateTime now) {
+        OffsetDateTime oldest = outboxRepository.findOldestEventDateTime();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, now).toMillis()));
+    }
+}
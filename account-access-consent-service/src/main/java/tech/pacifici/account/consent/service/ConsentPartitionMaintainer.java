@@ -0,0 +1,173 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.pacifici.account.consent.config.ConsentPartitionProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentPartitionRepository;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background job maintaining the monthly partitions of the consent table.
+ * Partitions are created for the current month and the configured number of months ahead, so that inserts
+ * never lack a partition. Once enabled, retention is a metadata operation: a past month whose consents all
+ * reached a final status longer ago than the retention period is detached and dropped, instead of being
+ * deleted row by row. Months still holding other consents are kept, the expiry sweeper purge handles those rows.
+ * <p>
+ * A first run happens before the web server starts, then every replica runs the job periodically, DDL is
+ * serialized with an advisory lock. The table has no default partition, whose rows would block creating the
+ * partition of their month: consent.partition.months.ahead publishes how many months after the current one are
+ * covered, -1 once the current month has no partition, and a warning is logged while it is below the configured
+ * number of months ahead. Consents dropped with their partition are not broadcast to the caches,
+ * they are in a final status and leave the caches within their time to live.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "consent.partition", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConsentPartitionMaintainer implements SmartLifecycle {
+
+    private final ConsentPartitionProperties properties;
+    private final ConsentPartitionRepository partitionRepository;
+
+    // The last month of the unbroken run of partitions starting with the current month, as of the last run.
+    private final AtomicReference<YearMonth> lastCoveredMonth = new AtomicReference<>();
+
+    private volatile boolean running;
+
+    public ConsentPartitionMaintainer(ConsentPartitionProperties properties,
+                                      ConsentPartitionRepository partitionRepository,
+                                      MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.partitionRepository = partitionRepository;
+        Gauge.builder("consent.partition.months.ahead", this,
+                        maintainer -> maintainer.monthsAhead(YearMonth.now(ZoneOffset.UTC)))
+                .description("Months after the current one with a consent partition, -1 if the current month has none")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the maintenance, scheduled with a fixed delay between the end of a run and the start of the next one.
+     */
+    @Scheduled(fixedDelayString = "${consent.partition.interval:1h}", initialDelayString = "${consent.partition.interval:1h}")
+    public void maintain() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            int created = createPartitions(now);
+            int dropped = properties.dropEnabled() ? dropPartitions(now.minus(properties.retention())) : 0;
+            if (created > 0 || dropped > 0) {
+                log.info("Partition maintenance created {} and dropped {} consent partitions", created, dropped);
+            }
+        } catch (RuntimeException ex) {
+            if (TooManyRequestsException.findIn(ex).isPresent()) {
+                log.debug("Partition maintenance skipped, all database connections are in use");
+            } else if (ex instanceof DataAccessException) {
+                log.warn("Partition maintenance failed, retrying in {}", properties.interval(), ex);
+            } else {
+                throw ex;
+            }
+        }
+        double monthsAhead = monthsAhead(YearMonth.from(now));
+        if (monthsAhead < properties.monthsAhead()) {
+            log.warn("Consent partitions only cover {} of the {} months ahead, inserts fail in months without one",
+                    (int) monthsAhead, properties.monthsAhead());
+        }
+    }
+
+    /**
+     * Returns the number of months after the given one covered by partitions, as of the last run.
+     *
+     * @param current The current month.
+     * @return The number of months, -1 if the current month has no partition, NaN before the first run.
+     */
+    double monthsAhead(YearMonth current) {
+        YearMonth last = lastCoveredMonth.get();
+        return last == null ? Double.NaN : Math.max(-1, current.until(last, ChronoUnit.MONTHS));
+    }
+
+    /**
+     * Creates the missing partitions, from the current month to the configured number of months ahead.
+     *
+     * @param now The current date and time.
+     * @return The number of created partitions.
+     */
+    int createPartitions(OffsetDateTime now) {
+        Set<YearMonth> existing = new HashSet<>(partitionRepository.findPartitionMonths());
+        YearMonth current = YearMonth.from(now.withOffsetSameInstant(ZoneOffset.UTC));
+        int created = 0;
+        try {
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(properties.monthsAhead()));
+                 month = month.plusMonths(1)) {
+                if (!existing.contains(month)) {
+                    partitionRepository.createPartition(month, properties.lockTimeout());
+                    existing.add(month);
+                    created++;
+                }
+            }
+        } finally {
+            YearMonth last = current.minusMonths(1);
+            while (existing.contains(last.plusMonths(1))) {
+                last = last.plusMonths(1);
+            }
+            lastCoveredMonth.set(last);
+        }
+        return created;
+    }
+
+    /**
+     * Drops the past partitions holding only consents that reached a final status before the cutoff.
+     *
+     * @param cutoff The date and time before which consents in a final status can be dropped.
+     * @return The number of dropped partitions.
+     */
+    int dropPartitions(OffsetDateTime cutoff) {
+        int dropped = 0;
+        for (YearMonth month : partitionRepository.findPartitionMonths().stream().sorted().toList()) {
+            // Consents reach a final status after their creation: only months over before the cutoff qualify.
+            OffsetDateTime end = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (end.isAfter(cutoff)) {
+                break;
+            }
+            if (!partitionRepository.hasRetainedConsents(month, cutoff)) {
+                partitionRepository.dropPartition(month, properties.lockTimeout());
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    @Override
+    public void start() {
+        // The first run must succeed, inserts fail without a partition for the current month.
+        createPartitions(OffsetDateTime.now(ZoneOffset.UTC));
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below the web server phases: partitions exist before requests are accepted.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,78 @@
+package tech.pacifici.account.consent.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import tech.pacifici.account.consent.config.ReadRoutingProperties;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+import tech.pacifici.account.consent.repository.ReadRoutingDataSource;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of the read replicas: reads of a consent written within the sticky window go to the
+ * primary, all the other reads may be served by a replica.
+ * <p>
+ * A consent counts as written when its time-ordered ID was generated within the window, which every replica of the
+ * service can tell from the ID alone, or when a status change was made or received through the
+ * {@link ConsentInvalidationBus} within the window. Only the latter are remembered, in a bounded in-process cache.
+ * Creations of consents with random IDs are not tracked: the replica of the service that created one serves it from
+ * its {@link ConsentCache}, the others may not find it before the read replicas have caught up.
+ */
+@Component
+public class ConsentReadRouting {
+
+    private final ReadRoutingProperties properties;
+    private final Cache<String, Boolean> recentWrites;
+
+    public ConsentReadRouting(ReadRoutingProperties properties) {
+        this.properties = properties;
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(properties.maximumTracked())
+                .expireAfterWrite(properties.stickyWindow())
+                .build();
+    }
+
+    /**
+     * Records that consents changed status, their reads stick to the primary for the sticky window.
+     * Called by the {@link ConsentInvalidationBus} for the changes published and received.
+     *
+     * @param consentIds The IDs of the written consents.
+     */
+    public void recordWrites(Collection<String> consentIds) {
+        if (!properties.enabled()) {
+            return;
+        }
+        for (String consentId : consentIds) {
+            recentWrites.put(consentId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs a read of the given consents, on the primary if any of them was written within the sticky window.
+     *
+     * @param consentIds The IDs of the consents read.
+     * @param read       The read.
+     * @param <T>        The type of the result.
+     * @return The result of the read.
+     */
+    public <T> T read(Collection<String> consentIds, Supplier<T> read) {
+        if (properties.enabled() && consentIds.stream().anyMatch(this::isRecentlyWritten)) {
+            return ReadRoutingDataSource.onPrimary(read);
+        }
+        return read.get();
+    }
+
+    private boolean isRecentlyWritten(String consentId) {
+        return isRecentlyCreated(consentId) || recentWrites.getIfPresent(consentId) != null;
+    }
+
+    private boolean isRecentlyCreated(String consentId) {
+        Instant windowStart = Instant.now().minus(properties.stickyWindow());
+        return TimeOrderedConsentIdGenerator.timestampOf(consentId)
+                .filter(timestamp -> timestamp.isAfter(windowStart))
+                .isPresent();
+    }
+}
@@ -0,0 +1,163 @@
+package tech.pacifici.account.consent.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.pacifici.account.consent.config.ConsentIdempotencyProperties;
+import tech.pacifici.account.consent.domain.IdempotencyRecord;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.IdempotencyKeyRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Two tier store of the idempotency keys of consent creation requests.
+ * Keys are looked up in a bounded in-process cache first, so that retry storms are answered from memory,
+ * and in the idempotency_keys table otherwise. The table is the source of truth: its primary key makes
+ * concurrent requests with the same key wait for each other, across replicas.
+ * <p>
+ * A key only enters the in-process cache once the transaction that stored it has committed, and leaves it when its
+ * time to live, counted from its creation and not from when it was cached, runs out: from then on the table treats
+ * it as expired and another request may take it over.
+ * Lookups are counted in consent.idempotency.lookups, tagged with the tier that answered.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private final ConsentIdempotencyProperties properties;
+    private final IdempotencyKeyRepository repository;
+    private final Cache<String, IdempotencyRecord> cache;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public IdempotencyStore(ConsentIdempotencyProperties properties,
+                            IdempotencyKeyRepository repository,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfter(new IdempotencyExpiry(properties.timeToLive()))
+                .build();
+        this.memoryHits = lookups(meterRegistry, "memory");
+        this.databaseHits = lookups(meterRegistry, "database");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * Finds the outcome of an earlier request made with the given key.
+     *
+     * @param idempotencyKey The idempotency key.
+     * @return The outcome of the earlier request, or null if the key is unknown or expired.
+     */
+    public IdempotencyRecord find(String idempotencyKey) {
+        IdempotencyRecord cached = cache.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+        IdempotencyRecord stored = repository.findByKey(idempotencyKey, notBefore()).orElse(null);
+        if (stored == null) {
+            misses.increment();
+            return null;
+        }
+        databaseHits.increment();
+        cache.put(idempotencyKey, stored);
+        return stored;
+    }
+
+    /**
+     * Stores the outcome of a request made with the given key, in the current transaction.
+     * When a concurrent request is storing the same key, this waits until its transaction completes.
+     *
+     * @param idempotencyKey The idempotency key.
+     * @param record         The outcome of the request.
+     * @return true if the key was stored, false if another request already holds it.
+     */
+    public boolean record(String idempotencyKey, IdempotencyRecord record) {
+        if (!repository.insertIfAbsent(idempotencyKey, record, notBefore())) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(idempotencyKey, record);
+                }
+            });
+        } else {
+            cache.put(idempotencyKey, record);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes the keys past their time to live, batch by batch.
+     * Runs on every replica, batches lock their rows with SKIP LOCKED.
+     */
+    @Scheduled(fixedDelayString = "${consent.idempotency.purge-interval:5m}",
+            initialDelayString = "${consent.idempotency.purge-interval:5m}")
+    public void purgeExpired() {
+        OffsetDateTime cutoff = notBefore();
+        try {
+            int purged;
+            do {
+                purged = repository.deleteExpired(cutoff, properties.purgeBatchSize());
+            } while (purged == properties.purgeBatchSize());
+        } catch (RuntimeException ex) {
+            if (TooManyRequestsException.findIn(ex).isPresent()) {
+                log.debug("Idempotency key purge skipped, all database connections are in use");
+            } else if (ex instanceof DataAccessException) {
+                log.warn("Idempotency key purge failed, retrying in {}", properties.purgeInterval(), ex);
+            } else {
+                throw ex;
+            }
+        }
+    }
+
+    private OffsetDateTime notBefore() {
+        return OffsetDateTime.now().minus(properties.timeToLive());
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("consent.idempotency.lookups")
+                .description("Idempotency key lookups by the tier that answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ends the lifetime of every entry when the time to live of its key runs out, counted from the key creation.
+     */
+    private record IdempotencyExpiry(Duration timeToLive) implements Expiry<String, IdempotencyRecord> {
+
+        @Override
+        public long expireAfterCreate(String idempotencyKey, IdempotencyRecord record, long currentTime) {
+            Duration remaining = Duration.between(OffsetDateTime.now(), record.creationDateTime().plus(timeToLive));
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String idempotencyKey, IdempotencyRecord record, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(idempotencyKey, record, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String idempotencyKey, IdempotencyRecord record, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Transactional outbox of the consent changes, written in the same transaction as the change itself and drained by
+-- the outbox relay of the service (consent.outbox.*), which deletes the events once delivered.
+-- Events are relayed in id order, and only the oldest event of a consent at a time, so that the events of a consent
+-- are delivered in the order they happened even when several replicas relay at the same time.
+CREATE TABLE consent_outbox (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    consent_id VARCHAR(255) COLLATE "C" NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    status_update_date_time TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Finds whether an older event of the same consent is still waiting.
+CREATE INDEX idx_consent_outbox_consent ON consent_outbox (consent_id, id);
@@ -0,0 +1,16 @@
+-- Delivered events are no longer deleted from the outbox but numbered with their position in the consent event
+-- stream, in the order they were delivered, and kept for the retention period (consent.outbox.retention).
+-- The event streams read the delivered events from there, a subscriber resumes after the position it last received.
+-- Positions are only assigned under an advisory lock, one transaction at a time, so that a position never becomes
+-- visible after a higher one.
+CREATE SEQUENCE consent_outbox_position_seq;
+
+ALTER TABLE consent_outbox ADD COLUMN position BIGINT;
+
+-- Reads the stream from a position, and finds the oldest delivered events for the retention purge.
+CREATE UNIQUE INDEX idx_consent_outbox_position ON consent_outbox (position);
+
+-- The relay only looks at the events waiting to be delivered, the delivered ones are skipped by the partial indexes.
+CREATE INDEX idx_consent_outbox_undelivered ON consent_outbox (id) WHERE position IS NULL;
+CREATE INDEX idx_consent_outbox_undelivered_consent ON consent_outbox (consent_id, id) WHERE position IS NULL;
+DROP INDEX idx_consent_outbox_consent;
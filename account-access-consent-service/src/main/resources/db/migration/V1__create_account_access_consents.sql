@@ -1,5 +1,4 @@
-DROP TABLE IF EXISTS account_access_consents;
-
+-- Initial schema of the account access consents table.
 CREATE TABLE account_access_consents (
     consent_id VARCHAR(255) PRIMARY KEY,
     status VARCHAR(50) NOT NULL,
@@ -0,0 +1,29 @@
+-- Permissions move from a comma-joined TEXT to a BIGINT bitmask.
+-- Bit n is the permission at position n of the Permissions enum of the OpenAPI spec, see ConsentPermissions.
+ALTER TABLE account_access_consents ADD COLUMN permission_bits BIGINT;
+
+UPDATE account_access_consents
+SET permission_bits = (
+    SELECT COALESCE(bit_or(1::BIGINT << (array_position(ARRAY[
+        'ReadAccountsBasic',
+        'ReadAccountsDetail',
+        'ReadBalances',
+        'ReadBeneficiariesBasic',
+        'ReadBeneficiariesDetail',
+        'ReadDirectDebits',
+        'ReadOffers',
+        'ReadParty',
+        'ReadPartyPSU',
+        'ReadProducts',
+        'ReadStandingOrdersBasic',
+        'ReadStandingOrdersDetail',
+        'ReadStatements',
+        'ReadTransactionsBasic',
+        'ReadTransactionsDetail'
+    ]::TEXT[], trim(permission)) - 1)), 0)
+    FROM unnest(string_to_array(permissions, ',')) AS permission
+);
+
+ALTER TABLE account_access_consents DROP COLUMN permissions;
+ALTER TABLE account_access_consents RENAME COLUMN permission_bits TO permissions;
+ALTER TABLE account_access_consents ALTER COLUMN permissions SET NOT NULL;
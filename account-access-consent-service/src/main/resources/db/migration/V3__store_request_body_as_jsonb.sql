@@ -0,0 +1,8 @@
+-- The request body moves from TEXT to JSONB, serialized by Jackson.
+-- Rows written before this change hold the generated model toString() output, which is not JSON:
+-- it is kept verbatim under a "legacy" key.
+ALTER TABLE account_access_consents
+    ALTER COLUMN request_body TYPE JSONB USING jsonb_build_object('legacy', request_body);
+
+-- Bodies large enough to be TOASTed are compressed with the default_toast_compression of the session writing them,
+-- pglz unless configured otherwise. Servers built with lz4 can opt in per session, see application.properties.
@@ -0,0 +1,12 @@
+-- Indexes backing the expiry sweeper, partial so that they only cover the rows it still has to visit.
+-- Built concurrently to avoid blocking writes, Flyway runs this migration outside of a transaction.
+
+-- Consents that can still expire, in the order the sweeper marks them Expired.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_account_access_consents_expiration
+    ON account_access_consents (expiration_date_time, consent_id)
+    WHERE status IN ('AwaitingAuthorisation', 'Authorised');
+
+-- Consents in a final status, in the order the sweeper purges them once past the retention period.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_account_access_consents_final_status_update
+    ON account_access_consents (status_update_date_time, consent_id)
+    WHERE status IN ('Rejected', 'Revoked', 'Expired');
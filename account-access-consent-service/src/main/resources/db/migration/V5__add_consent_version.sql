@@ -0,0 +1,3 @@
+-- Version counter for optimistic concurrency: every status change is a conditional UPDATE on the version read.
+-- Adding a column with a constant default does not rewrite the table.
+ALTER TABLE account_access_consents ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
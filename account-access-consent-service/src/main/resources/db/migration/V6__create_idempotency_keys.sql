@@ -0,0 +1,12 @@
+-- Idempotency keys of consent creation requests, kept for the replay window (consent.idempotency.time-to-live).
+-- The primary key serializes concurrent requests carrying the same key: the second INSERT waits for the first
+-- transaction and then conflicts.
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(40) PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    consent_id VARCHAR(255) NOT NULL,
+    creation_date_time TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Purge of the keys past the replay window, oldest first.
+CREATE INDEX idx_idempotency_keys_creation ON idempotency_keys (creation_date_time);
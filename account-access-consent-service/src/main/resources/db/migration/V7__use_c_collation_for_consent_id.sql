@@ -0,0 +1,5 @@
+-- Consent IDs are compared byte by byte instead of with the locale rules of the database collation.
+-- The IDs are plain ASCII (ACC- and a lower case UUID), so the C collation only makes key comparisons in the
+-- primary key and the expiry indexes cheaper, and sorts time-ordered IDs exactly in generation order.
+-- Rewrites the table and rebuilds its indexes.
+ALTER TABLE account_access_consents ALTER COLUMN consent_id TYPE VARCHAR(255) COLLATE "C";
@@ -0,0 +1,45 @@
+-- Range partitioning of the consents on creation_date_time, one partition per month in UTC.
+-- The primary key of a partitioned table must include the partition key: consent IDs stay unique because they are
+-- generated by the service, and lookups by ID filter on the creation date and time derived from time-ordered IDs.
+-- The existing table becomes the partition of the current month, from MINVALUE, so no row is moved. Its primary key
+-- is rebuilt on (consent_id, creation_date_time), and attaching it scans it once to validate the bound.
+-- Partitions of the following months are created by the service (consent.partition.*), and past months are
+-- dropped once all their consents reached a final status longer ago than the retention period.
+DO $$
+DECLARE
+    legacy_partition TEXT := 'account_access_consents_p' || to_char(now() AT TIME ZONE 'UTC', 'YYYYMM');
+    next_month TIMESTAMP WITH TIME ZONE := date_trunc('month', now() AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'
+            + INTERVAL '1 month';
+BEGIN
+    EXECUTE format('ALTER TABLE account_access_consents RENAME TO %I', legacy_partition);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT account_access_consents_pkey, ADD CONSTRAINT %I'
+            ' PRIMARY KEY (consent_id, creation_date_time)', legacy_partition, legacy_partition || '_pkey');
+    EXECUTE format('ALTER INDEX idx_account_access_consents_expiration RENAME TO %I',
+            legacy_partition || '_expiration');
+    EXECUTE format('ALTER INDEX idx_account_access_consents_final_status_update RENAME TO %I',
+            legacy_partition || '_final_status_update');
+
+    CREATE TABLE account_access_consents (
+        consent_id VARCHAR(255) COLLATE "C" NOT NULL,
+        status VARCHAR(50) NOT NULL,
+        creation_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+        status_update_date_time TIMESTAMP WITH TIME ZONE NOT NULL,
+        expiration_date_time TIMESTAMP WITH TIME ZONE,
+        permissions BIGINT NOT NULL,
+        request_body JSONB NOT NULL,
+        version BIGINT NOT NULL DEFAULT 0,
+        PRIMARY KEY (consent_id, creation_date_time)
+    ) PARTITION BY RANGE (creation_date_time);
+
+    -- Created on the parent before attaching, the matching indexes of the existing table are attached to them.
+    CREATE INDEX idx_account_access_consents_expiration
+        ON account_access_consents (expiration_date_time, consent_id)
+        WHERE status IN ('AwaitingAuthorisation', 'Authorised');
+    CREATE INDEX idx_account_access_consents_final_status_update
+        ON account_access_consents (status_update_date_time, consent_id)
+        WHERE status IN ('Rejected', 'Revoked', 'Expired');
+
+    EXECUTE format('ALTER TABLE account_access_consents ATTACH PARTITION %I FOR VALUES FROM (MINVALUE) TO (%L)',
+            legacy_partition, next_month);
+END
+$$;
@@ -0,0 +1,16 @@
+-- Indexes backing the keyset paginated consent list, one per sort order, each ending with consent_id so that
+-- a page starts right after the (position, consent_id) of the previous one.
+-- Indexes on a partitioned table cannot be built concurrently, these block writes while they are built. On a large
+-- table, create them ON ONLY the parent table instead, build the index of every partition concurrently, and attach
+-- each one with ALTER INDEX ... ATTACH PARTITION.
+
+-- Consents in creation order, optionally by status. The first index also serves the unfiltered list, in
+-- partition order.
+CREATE INDEX IF NOT EXISTS idx_account_access_consents_creation
+    ON account_access_consents (creation_date_time, consent_id);
+CREATE INDEX IF NOT EXISTS idx_account_access_consents_status_creation
+    ON account_access_consents (status, creation_date_time, consent_id);
+
+-- Consents in expiration order, for lists restricted to an expiry window, whatever their status.
+CREATE INDEX IF NOT EXISTS idx_account_access_consents_expiration_all
+    ON account_access_consents (expiration_date_time, consent_id);
@@ -6,23 +6,46 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tech.pacifici.account.consent.domain.ResourceNotFoundException;
+import tech.pacifici.account.consent.domain.ConsentListQuery;
+import tech.pacifici.account.consent.domain.ConsentValidity;
 import tech.pacifici.account.consent.service.AccountAccessConsentService;
+import tech.pacifici.account.consent.service.ConsentEventBroadcaster;
+import tech.pacifici.account.consent.service.ConsentListService;
+import tech.pacifici.account.consent.service.ConsentMetrics;
+import tech.pacifici.model.OBConsentValidation;
+import tech.pacifici.model.OBConsentValidationResponse;
 import tech.pacifici.model.OBReadConsentResponse5;
 import tech.pacifici.model.OBReadConsentResponse5Data;
 import tech.pacifici.model.OBWriteDomesticConsent4;
 import tech.pacifici.model.OBWriteDomesticConsent4Data;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * Unit tests for the AccountAccessConsentsController.
@@ -35,6 +58,15 @@ class AccountAccessConsentsControllerTest {
     @Mock
     private AccountAccessConsentService service;
 
+    @Mock
+    private ConsentListService listService;
+
+    @Mock
+    private ConsentMetrics metrics;
+
+    @Mock
+    private ConsentEventBroadcaster eventBroadcaster;
+
     @InjectMocks
     private AccountAccessConsentsController controller;
 
@@ -71,16 +103,16 @@ class AccountAccessConsentsControllerTest {
     @Test
     void testCreateAccountAccessConsents_Success() {
         // Arrange
-        when(service.createConsent(any(OBWriteDomesticConsent4.class)))
+        when(service.createConsent(any(OBWriteDomesticConsent4.class), eq("idempotency-key-1")))
                 .thenReturn(mockConsentResponse);
 
         // Act
-        ResponseEntity<OBReadConsentResponse5> response = controller.createAccountAccessConsents(mockConsentRequest);
+        ResponseEntity<OBReadConsentResponse5> response = controller.createAccountAccessConsents(mockConsentRequest, "idempotency-key-1");
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(mockConsentResponse, response.getBody());
-        verify(service, times(1)).createConsent(any(OBWriteDomesticConsent4.class));
+        verify(service, times(1)).createConsent(any(OBWriteDomesticConsent4.class), eq("idempotency-key-1"));
     }
 
     @Test
@@ -112,6 +144,74 @@ class AccountAccessConsentsControllerTest {
         verify(service, times(1)).getConsentById(mockConsentId);
     }
 
+    @Test
+    void testGetAccountAccessConsentsConsentIdValidation_SetsValidators() {
+        // Arrange
+        OBConsentValidation validation = new OBConsentValidation(mockConsentId, true);
+        when(service.validateConsent(mockConsentId, "ReadBalances"))
+                .thenReturn(new ConsentValidity(validation, "2"));
+
+        // Act
+        ResponseEntity<OBConsentValidationResponse> response = controller.getAccountAccessConsentsConsentIdValidation(
+                mockConsentId, xFapiFinancialId, null, "ReadBalances");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(validation, response.getBody().getData());
+        assertEquals("\"2\"", response.getHeaders().getETag());
+        assertEquals(-1, response.getHeaders().getLastModified());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    }
+
+    @Test
+    void testGetAccountAccessConsentsConsentIdValidation_MatchingETagIsNotModified() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        OBConsentValidation validation = new OBConsentValidation(mockConsentId, true);
+        when(service.validateConsent(mockConsentId, "ReadBalances"))
+                .thenReturn(new ConsentValidity(validation, "2"));
+
+        // Act & Assert
+        mockMvc.perform(get("/account-access-consents/{ConsentId}/validation", mockConsentId)
+                        .param("Permission", "ReadBalances")
+                        .header("x-fapi-financial-id", xFapiFinancialId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetAccountAccessConsentsConsentIdValidation_RevocationInTheSameSecondIsNotMissed() throws Exception {
+        // Arrange
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        // Validated as version 2 at 12:00:00.100, revoked as version 3 at 12:00:00.900.
+        OffsetDateTime validated = OffsetDateTime.parse("2025-07-01T12:00:00.100Z");
+        OBConsentValidation validation = new OBConsentValidation(mockConsentId, false);
+        when(service.validateConsent(mockConsentId, "ReadBalances"))
+                .thenReturn(new ConsentValidity(validation, "3"));
+
+        // Act & Assert
+        mockMvc.perform(get("/account-access-consents/{ConsentId}/validation", mockConsentId)
+                        .param("Permission", "ReadBalances")
+                        .header("x-fapi-financial-id", xFapiFinancialId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"2\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE,
+                                DateTimeFormatter.RFC_1123_DATE_TIME.format(validated.atZoneSameInstant(ZoneOffset.UTC))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.Data.Valid").value(false));
+
+        mockMvc.perform(get("/account-access-consents/{ConsentId}/validation", mockConsentId)
+                        .param("Permission", "ReadBalances")
+                        .header("x-fapi-financial-id", xFapiFinancialId)
+                        .header(HttpHeaders.IF_MODIFIED_SINCE,
+                                DateTimeFormatter.RFC_1123_DATE_TIME.format(validated.atZoneSameInstant(ZoneOffset.UTC))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.Data.Valid").value(false));
+    }
+
     @Test
     void testDeleteAccountAccessConsentsConsentId_Success() {
         // Arrange
@@ -139,4 +239,39 @@ class AccountAccessConsentsControllerTest {
 
         verify(service, times(1)).deleteConsentById(mockConsentId);
     }
+
+    @Test
+    void testListAccountAccessConsents_WritesTheBufferedPage() throws Exception {
+        // Arrange
+        ConsentListQuery query = new ConsentListQuery(null, null, null, null, 100, null);
+        byte[] page = "{\"Data\":{\"Consents\":[]},\"Meta\":{}}".getBytes(StandardCharsets.UTF_8);
+        when(listService.prepareQuery("Authorised", null, null, null, null, null)).thenReturn(query);
+        when(listService.readPage(query)).thenReturn(page);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = controller.listAccountAccessConsents(
+                xFapiFinancialId, null, "Authorised", null, null, null, null, null);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page.length, response.getHeaders().getContentLength());
+        assertArrayEquals(page, body.toByteArray());
+        verify(listService, times(1)).readPage(query);
+    }
+
+    @Test
+    void testSubscribeAccountAccessConsentEvents_ReturnsTheEventStream() {
+        // Arrange
+        SseEmitter stream = new SseEmitter();
+        when(eventBroadcaster.subscribe(42L)).thenReturn(stream);
+
+        // Act
+        ResponseEntity<SseEmitter> response = controller.subscribeAccountAccessConsentEvents(xFapiFinancialId, null, 42L);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(stream, response.getBody());
+    }
 }
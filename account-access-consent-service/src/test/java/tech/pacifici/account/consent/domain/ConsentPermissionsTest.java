@@ -0,0 +1,67 @@
+package tech.pacifici.account.consent.domain;
+
+import org.junit.jupiter.api.Test;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the ConsentPermissions bitmask helpers.
+ */
+class ConsentPermissionsTest {
+
+    @Test
+    void testBitOf_UsesEnumOrdinal() {
+        assertEquals(1L, ConsentPermissions.bitOf(PermissionsEnum.READ_ACCOUNTS_BASIC));
+        assertEquals(1L << 14, ConsentPermissions.bitOf(PermissionsEnum.READ_TRANSACTIONS_DETAIL));
+    }
+
+    @Test
+    void testToBitsAndFromBits_RoundTrip() {
+        EnumSet<PermissionsEnum> permissions = EnumSet.of(
+                PermissionsEnum.READ_BALANCES, PermissionsEnum.READ_PARTY_PSU, PermissionsEnum.READ_TRANSACTIONS_DETAIL);
+
+        long bits = ConsentPermissions.toBits(permissions);
+
+        assertEquals(permissions, ConsentPermissions.fromBits(bits));
+        assertEquals(EnumSet.allOf(PermissionsEnum.class),
+                ConsentPermissions.fromBits(ConsentPermissions.toBits(EnumSet.allOf(PermissionsEnum.class))));
+        assertEquals(EnumSet.noneOf(PermissionsEnum.class), ConsentPermissions.fromBits(0));
+    }
+
+    @Test
+    void testFromBits_UnknownBits() {
+        assertThrows(IllegalArgumentException.class, () -> ConsentPermissions.fromBits(1L << 40));
+    }
+
+    @Test
+    void testFromRequest_ConvertsEveryRequestPermission() {
+        for (OBWriteDomesticConsent4Data.PermissionsEnum permission : OBWriteDomesticConsent4Data.PermissionsEnum.values()) {
+            assertEquals(EnumSet.of(PermissionsEnum.fromValue(permission.getValue())),
+                    ConsentPermissions.fromRequest(List.of(permission)));
+        }
+    }
+
+    @Test
+    void testListFromBits_EnumOrder() {
+        long bits = ConsentPermissions.toBits(EnumSet.of(PermissionsEnum.READ_TRANSACTIONS_DETAIL, PermissionsEnum.READ_BALANCES));
+
+        assertEquals(List.of(PermissionsEnum.READ_BALANCES, PermissionsEnum.READ_TRANSACTIONS_DETAIL),
+                ConsentPermissions.listFromBits(bits));
+        assertEquals(List.of(), ConsentPermissions.listFromBits(0));
+        assertThrows(IllegalArgumentException.class, () -> ConsentPermissions.listFromBits(1L << 40));
+    }
+
+    @Test
+    void testFromValue_LookupTable() {
+        for (PermissionsEnum permission : PermissionsEnum.values()) {
+            assertEquals(permission, ConsentPermissions.fromValue(permission.getValue()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> ConsentPermissions.fromValue("ReadEverything"));
+    }
+}
@@ -0,0 +1,31 @@
+package tech.pacifici.account.consent.domain;
+
+import org.junit.jupiter.api.Test;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ConsentStatusTransitions lifecycle.
+ */
+class ConsentStatusTransitionsTest {
+
+    @Test
+    void testIsAllowed_FollowsLifecycle() {
+        assertTrue(ConsentStatusTransitions.isAllowed(StatusEnum.AWAITING_AUTHORISATION, StatusEnum.AUTHORISED));
+        assertTrue(ConsentStatusTransitions.isAllowed(StatusEnum.AWAITING_AUTHORISATION, StatusEnum.REJECTED));
+        assertTrue(ConsentStatusTransitions.isAllowed(StatusEnum.AUTHORISED, StatusEnum.REVOKED));
+        assertFalse(ConsentStatusTransitions.isAllowed(StatusEnum.AUTHORISED, StatusEnum.REJECTED));
+        assertFalse(ConsentStatusTransitions.isAllowed(StatusEnum.AWAITING_AUTHORISATION, StatusEnum.EXPIRED));
+    }
+
+    @Test
+    void testIsAllowed_FinalStatusesCannotChange() {
+        for (StatusEnum from : new StatusEnum[] {StatusEnum.REJECTED, StatusEnum.REVOKED, StatusEnum.EXPIRED}) {
+            for (StatusEnum to : StatusEnum.values()) {
+                assertFalse(ConsentStatusTransitions.isAllowed(from, to));
+            }
+        }
+    }
+}
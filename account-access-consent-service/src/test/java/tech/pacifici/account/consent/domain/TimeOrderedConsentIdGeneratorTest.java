@@ -0,0 +1,74 @@
+package tech.pacifici.account.consent.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the TimeOrderedConsentIdGenerator.
+ */
+class TimeOrderedConsentIdGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2025-07-01T10:15:30.123Z");
+
+    @Test
+    void testGenerate_VersionSevenUuidWithPrefix() {
+        // Arrange
+        TimeOrderedConsentIdGenerator generator = new TimeOrderedConsentIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Act
+        String consentId = generator.generate();
+
+        // Assert
+        assertTrue(consentId.startsWith(ConsentIdGenerator.PREFIX));
+        UUID uuid = UUID.fromString(consentId.substring(ConsentIdGenerator.PREFIX.length()));
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(NOW.toEpochMilli(), uuid.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void testGenerate_IdsOfTheSameMillisecondIncrease() {
+        // Arrange
+        TimeOrderedConsentIdGenerator generator = new TimeOrderedConsentIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+        String previous = generator.generate();
+
+        // Act & Assert
+        for (int i = 0; i < 1000; i++) {
+            String next = generator.generate();
+            assertTrue(previous.compareTo(next) < 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testGenerate_LaterIdsSortAfterEarlierOnes() {
+        // Arrange
+        TimeOrderedConsentIdGenerator earlier = new TimeOrderedConsentIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC));
+        TimeOrderedConsentIdGenerator later = new TimeOrderedConsentIdGenerator(
+                Clock.fixed(NOW.plusMillis(1), ZoneOffset.UTC));
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            assertTrue(earlier.generate().compareTo(later.generate()) < 0);
+        }
+    }
+
+    @Test
+    void testTimestampOf_OnlyTimeOrderedIds() {
+        // Arrange
+        String consentId = new TimeOrderedConsentIdGenerator(Clock.fixed(NOW, ZoneOffset.UTC)).generate();
+
+        // Act & Assert
+        assertEquals(Optional.of(NOW), TimeOrderedConsentIdGenerator.timestampOf(consentId));
+        assertEquals(Optional.empty(), TimeOrderedConsentIdGenerator.timestampOf(new RandomConsentIdGenerator().generate()));
+        assertEquals(Optional.empty(), TimeOrderedConsentIdGenerator.timestampOf("ACC-unknown"));
+    }
+}
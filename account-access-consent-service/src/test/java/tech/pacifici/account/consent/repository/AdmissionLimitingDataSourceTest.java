@@ -0,0 +1,127 @@
+package tech.pacifici.account.consent.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import tech.pacifici.account.consent.config.DatabaseAdmissionProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the AdmissionLimitingDataSource.
+ */
+@ExtendWith(MockitoExtension.class)
+class AdmissionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionLimitingDataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new AdmissionLimitingDataSource(targetDataSource,
+                new DatabaseAdmissionProperties(true, 2, 0, Duration.ZERO), meterRegistry);
+    }
+
+    @Test
+    void testGetConnection_RejectedWhenAllPermitsInUse() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenReturn(mock(Connection.class), mock(Connection.class));
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> dataSource.getConnection());
+        verify(targetDataSource, times(2)).getConnection();
+        assertEquals(1.0, meterRegistry.get("consent.db.admission.rejections").counter().count());
+        assertEquals(3, meterRegistry.get("consent.db.admission.wait").timer().count());
+        assertEquals(2.0, meterRegistry.get("consent.db.admission.in.use").gauge().value());
+    }
+
+    @Test
+    void testGetConnection_PermitReleasedOnClose() throws SQLException {
+        // Arrange
+        Connection target = mock(Connection.class);
+        when(targetDataSource.getConnection()).thenReturn(target);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // Act
+        first.close();
+        first.close();
+
+        // Assert
+        dataSource.getConnection();
+        verify(target, times(1)).close();
+        assertThrows(TooManyRequestsException.class, () -> dataSource.getConnection());
+        second.close();
+        assertEquals(1.0, meterRegistry.get("consent.db.admission.in.use").gauge().value());
+    }
+
+    @Test
+    void testGetConnection_PermitReleasedWhenTargetFails() throws SQLException {
+        // Arrange
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(0.0, meterRegistry.get("consent.db.admission.in.use").gauge().value());
+    }
+
+    @Test
+    void testGetConnection_BackgroundWorkDoesNotTakeTheRequestPermits() throws SQLException {
+        // Arrange
+        dataSource = new AdmissionLimitingDataSource(targetDataSource,
+                new DatabaseAdmissionProperties(true, 3, 1, Duration.ZERO), meterRegistry, "pool");
+        when(targetDataSource.getConnection()).thenReturn(mock(Connection.class));
+        dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(TooManyRequestsException.class, () -> dataSource.getConnection());
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(TooManyRequestsException.class, () -> dataSource.getConnection());
+        assertEquals(1.0, meterRegistry.get("consent.db.admission.in.use")
+                .tags("pool", "pool", "work", "background").gauge().value());
+        assertEquals(2.0, meterRegistry.get("consent.db.admission.in.use")
+                .tags("pool", "pool", "work", "request").gauge().value());
+        assertEquals(1.0, meterRegistry.get("consent.db.admission.rejections")
+                .tags("pool", "pool", "work", "request").counter().count());
+    }
+
+    @Test
+    void testConstructor_RequestsKeepAtLeastOnePermit() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new AdmissionLimitingDataSource(targetDataSource,
+                new DatabaseAdmissionProperties(true, 2, 2, Duration.ZERO), meterRegistry, "pool"));
+    }
+}
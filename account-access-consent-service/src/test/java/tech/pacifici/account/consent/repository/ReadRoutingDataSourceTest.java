@@ -0,0 +1,79 @@
+package tech.pacifici.account.consent.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the ReadRoutingDataSource routing decisions.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplica;
+
+    @Mock
+    private DataSource secondReplica;
+
+    private ReadRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadRoutingDataSource(primary, List.of(firstReplica, secondReplica));
+    }
+
+    @Test
+    void testDetermineTarget_ReadWriteOnPrimary() {
+        // Arrange
+        List<DataSource> targets = new ArrayList<>();
+
+        // Act
+        ReadRoutingDataSource.beginTransaction(false, () -> targets.add(dataSource.determineTarget()));
+
+        // Assert
+        assertEquals(List.of(primary), targets);
+    }
+
+    @Test
+    void testDetermineTarget_ReadOnlyOnReplicasRoundRobin() {
+        // Arrange
+        List<DataSource> targets = new ArrayList<>();
+
+        // Act
+        for (int transaction = 0; transaction < 3; transaction++) {
+            ReadRoutingDataSource.beginTransaction(true, () -> targets.add(dataSource.determineTarget()));
+        }
+
+        // Assert
+        assertEquals(List.of(firstReplica, secondReplica, firstReplica), targets);
+        assertSame(primary, dataSource.determineTarget());
+    }
+
+    @Test
+    void testDetermineTarget_ReadOnlyPinnedToPrimary() {
+        // Arrange
+        List<DataSource> targets = new ArrayList<>();
+
+        // Act
+        ReadRoutingDataSource.onPrimary(() -> {
+            ReadRoutingDataSource.beginTransaction(true, () -> targets.add(dataSource.determineTarget()));
+            return null;
+        });
+
+        // Assert
+        assertEquals(List.of(primary), targets);
+    }
+}
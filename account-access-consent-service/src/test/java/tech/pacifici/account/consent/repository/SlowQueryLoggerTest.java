@@ -0,0 +1,82 @@
+package tech.pacifici.account.consent.repository;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+import tech.pacifici.account.consent.config.SlowQueryProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the SlowQueryLogger.
+ */
+class SlowQueryLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryLogger.class);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void testAfterQuery_LogsSlowStatementsOnly() {
+        // Arrange
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(
+                new SlowQueryProperties(true, Duration.ofMillis(100), 1.0, 20), meterRegistry);
+        List<QueryInfo> queries = List.of(new QueryInfo("SELECT consent_id FROM account_access_consents WHERE consent_id = ?"));
+
+        // Act
+        slowQueryLogger.afterQuery(execution(99), queries);
+        slowQueryLogger.afterQuery(execution(150), queries);
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("consent.db.slow.queries").counter().count());
+        assertEquals(1, appender.list.size());
+        List<KeyValuePair> fields = appender.list.get(0).getKeyValuePairs();
+        assertTrue(fields.stream().anyMatch(field -> field.key.equals("elapsed_ms") && field.value.equals(150L)));
+        assertTrue(fields.stream().anyMatch(field -> field.key.equals("query") && field.value.equals("SELECT consent_id FR...")));
+    }
+
+    @Test
+    void testAfterQuery_CountsStatementsLeftOutOfTheSample() {
+        // Arrange
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(
+                new SlowQueryProperties(true, Duration.ofMillis(100), 0.0, 2000), meterRegistry);
+
+        // Act
+        slowQueryLogger.afterQuery(execution(150), List.of(new QueryInfo("SELECT 1")));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("consent.db.slow.queries").counter().count());
+        assertTrue(appender.list.isEmpty());
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo execution = new ExecutionInfo();
+        execution.setElapsedTime(elapsedMillis);
+        execution.setSuccess(true);
+        return execution;
+    }
+}
@@ -0,0 +1,463 @@
+package tech.pacifici.account.consent.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.pacifici.account.consent.config.ConsentBulkProperties;
+import tech.pacifici.account.consent.config.ConsentCacheProperties;
+import tech.pacifici.account.consent.config.ConsentGroupCommitProperties;
+import tech.pacifici.account.consent.config.ConsentIdempotencyProperties;
+import tech.pacifici.account.consent.config.ReadRoutingProperties;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConflictException;
+import tech.pacifici.account.consent.domain.ResourceNotFoundException;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.ConsentValidity;
+import tech.pacifici.account.consent.domain.IdempotencyRecord;
+import tech.pacifici.account.consent.domain.InvalidRequestException;
+import tech.pacifici.account.consent.domain.TimeOrderedConsentIdGenerator;
+import tech.pacifici.account.consent.repository.AccountAccessConsentRepository;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.account.consent.repository.IdempotencyKeyRepository;
+import tech.pacifici.model.OBConsentBulkResponse;
+import tech.pacifici.model.OBConsentBulkResult;
+import tech.pacifici.model.OBConsentValidation;
+import tech.pacifici.model.OBConsentValidationBulkRequest;
+import tech.pacifici.model.OBConsentValidationBulkRequestData;
+import tech.pacifici.model.OBConsentValidationBulkResponse;
+import tech.pacifici.model.OBConsentValidationCheck;
+import tech.pacifici.model.OBReadConsentBulkRequest;
+import tech.pacifici.model.OBReadConsentBulkRequestData;
+import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBReadConsentResponse5Data;
+import tech.pacifici.model.OBWriteConsentBulkRequest;
+import tech.pacifici.model.OBWriteConsentBulkRequestData;
+import tech.pacifici.model.OBWriteConsentStatusRequest;
+import tech.pacifici.model.OBWriteConsentStatusRequestData;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the AccountAccessConsentService.
+ * The repository is mocked, while a real ConsentCache is used to verify that reads
+ * are served from memory and that writes keep the cache consistent.
+ */
+@ExtendWith(MockitoExtension.class)
+class AccountAccessConsentServiceTest {
+
+    private static final String CONSENT_ID = "ACC-1234";
+
+    @Mock
+    private AccountAccessConsentRepository repository;
+
+    @Mock
+    private ConsentQueryRepository queryRepository;
+
+    @Mock
+    private ConsentInvalidationBus invalidationBus;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private ConsentOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountAccessConsentService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConsentCache consentCache = new ConsentCache(
+                new ConsentCacheProperties(100, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+        IdempotencyStore idempotencyStore = new IdempotencyStore(
+                new ConsentIdempotencyProperties(Duration.ofHours(24), 100, Duration.ofMinutes(5), 100),
+                idempotencyKeyRepository, new SimpleMeterRegistry());
+        ConsentGroupCommitter groupCommitter = new ConsentGroupCommitter(
+                new ConsentGroupCommitProperties(false, Duration.ofMillis(2), 100, 1000), null, new SimpleMeterRegistry());
+        service = new AccountAccessConsentService(
+                repository, queryRepository, consentCache, new ConsentMapperImpl(),
+                new TimeOrderedConsentIdGenerator(Clock.systemUTC()), invalidationBus,
+                new ConsentReadRouting(new ReadRoutingProperties(false, Duration.ofSeconds(5), 100, List.of())),
+                idempotencyStore,
+                groupCommitter, outboxRepository, new TransactionTemplate(transactionManager),
+                new ConsentBulkProperties(10), JsonMapper.builder().findAndAddModules().build(),
+                new ConsentMetrics(meterRegistry));
+    }
+
+    @Test
+    void testGetConsentById_ServedFromCacheOnSecondRead() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(OffsetDateTime.now().plusDays(1))));
+
+        // Act
+        OBReadConsentResponse5 first = service.getConsentById(CONSENT_ID);
+        OBReadConsentResponse5 second = service.getConsentById(CONSENT_ID);
+
+        // Assert
+        assertEquals(first, second);
+        assertEquals(OBReadConsentResponse5Data.StatusEnum.AUTHORISED, second.getData().getStatus());
+        assertEquals(List.of(OBReadConsentResponse5Data.PermissionsEnum.READ_BALANCES), second.getData().getPermissions());
+        verify(queryRepository, times(1)).findSnapshotById(CONSENT_ID);
+    }
+
+    @Test
+    void testGetConsentById_ExpiredConsentIsNotCached() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(OffsetDateTime.now().minusDays(1))));
+
+        // Act
+        service.getConsentById(CONSENT_ID);
+        service.getConsentById(CONSENT_ID);
+
+        // Assert
+        verify(queryRepository, times(2)).findSnapshotById(CONSENT_ID);
+    }
+
+    @Test
+    void testGetConsentById_NotFound() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> service.getConsentById(CONSENT_ID));
+        assertThrows(ResourceNotFoundException.class, () -> service.getConsentById(CONSENT_ID));
+        verify(queryRepository, times(2)).findSnapshotById(CONSENT_ID);
+    }
+
+    @Test
+    void testCreateConsent_PopulatesCache() {
+        // Act
+        OBReadConsentResponse5 created = service.createConsent(createRequest(OffsetDateTime.now().plusDays(1)), null);
+        OBReadConsentResponse5 read = service.getConsentById(created.getData().getConsentId());
+
+        // Assert
+        assertEquals(created, read);
+        verify(repository, times(1)).save(argThat(consent -> consent.getRequestBody().startsWith("{\"Data\":{")));
+        verify(queryRepository, never()).findSnapshotById(any());
+    }
+
+    @Test
+    void testCreateConsent_TimesEveryStage() {
+        // Act
+        service.createConsent(createRequest(OffsetDateTime.now().plusDays(1)), null);
+
+        // Assert
+        for (String stage : List.of("validation", "id-generation", "serialization", "persistence")) {
+            assertEquals(1, meterRegistry.get("consent.operation.stage")
+                    .tag("operation", "create").tag("stage", stage).timer().count(), stage);
+        }
+        // The request is mapped to the entity, then the entity to the response.
+        assertEquals(2, meterRegistry.get("consent.operation.stage")
+                .tag("operation", "create").tag("stage", "mapping").timer().count());
+    }
+
+    @Test
+    void testCreateConsent_AppendsCreationEventToOutbox() {
+        // Act
+        OBReadConsentResponse5 created = service.createConsent(createRequest(OffsetDateTime.now().plusDays(1)), null);
+
+        // Assert
+        verify(outboxRepository, times(1)).append(created.getData().getConsentId(), "AwaitingAuthorisation",
+                created.getData().getStatusUpdateDateTime());
+    }
+
+    @Test
+    void testCreateConsent_ReplaysRequestWithSameIdempotencyKey() {
+        // Arrange
+        OBWriteDomesticConsent4 request = createRequest(OffsetDateTime.now().plusDays(1));
+        when(idempotencyKeyRepository.findByKey(eq("key-1"), any(OffsetDateTime.class))).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.insertIfAbsent(eq("key-1"), any(IdempotencyRecord.class), any(OffsetDateTime.class)))
+                .thenReturn(true);
+
+        // Act
+        OBReadConsentResponse5 created = service.createConsent(request, "key-1");
+        OBReadConsentResponse5 replayed = service.createConsent(request, "key-1");
+
+        // Assert
+        assertEquals(created, replayed);
+        verify(repository, times(1)).save(any());
+        verify(idempotencyKeyRepository, times(1)).findByKey(any(), any());
+    }
+
+    @Test
+    void testCreateConsent_IdempotentConsentIsNotCachedWhenCommitFails() {
+        // Arrange
+        when(idempotencyKeyRepository.findByKey(eq("key-1"), any(OffsetDateTime.class))).thenReturn(Optional.empty());
+        when(idempotencyKeyRepository.insertIfAbsent(eq("key-1"), any(IdempotencyRecord.class), any(OffsetDateTime.class)))
+                .thenReturn(true);
+        doThrow(new TransactionSystemException("Commit failed")).when(transactionManager).commit(any());
+
+        // Act
+        assertThrows(TransactionSystemException.class,
+                () -> service.createConsent(createRequest(OffsetDateTime.now().plusDays(1)), "key-1"));
+        ArgumentCaptor<AccountAccessConsent> saved = ArgumentCaptor.forClass(AccountAccessConsent.class);
+        verify(repository).save(saved.capture());
+        String consentId = saved.getValue().getConsentId();
+        when(queryRepository.findSnapshotById(consentId)).thenReturn(Optional.empty());
+
+        // Assert
+        assertThrows(ResourceNotFoundException.class, () -> service.getConsentById(consentId));
+    }
+
+    @Test
+    void testCreateConsent_SameIdempotencyKeyWithDifferentBodyConflicts() {
+        // Arrange
+        when(idempotencyKeyRepository.findByKey(eq("key-1"), any(OffsetDateTime.class)))
+                .thenReturn(Optional.of(new IdempotencyRecord("0".repeat(64), "ACC-5678", OffsetDateTime.now())));
+
+        // Act & Assert
+        ConflictException ex = assertThrows(ConflictException.class,
+                () -> service.createConsent(createRequest(OffsetDateTime.now().plusDays(1)), "key-1"));
+        assertEquals("UK.OBIE.Header.Invalid", ex.getErrorCode());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testDeleteConsentById_EvictsCachedConsent() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(OffsetDateTime.now().plusDays(1))));
+        when(repository.revokeById(eq(CONSENT_ID), any(OffsetDateTime.class))).thenReturn(1);
+        service.getConsentById(CONSENT_ID);
+
+        // Act
+        service.deleteConsentById(CONSENT_ID);
+        ConsentSnapshot authorised = consentSnapshot(OffsetDateTime.now().plusDays(1));
+        ConsentSnapshot revoked = new ConsentSnapshot(CONSENT_ID, OBReadConsentResponse5Data.StatusEnum.REVOKED,
+                authorised.creationDateTime(), OffsetDateTime.now(), authorised.expirationDateTime(), authorised.permissions(), 1);
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(revoked));
+
+        // Assert
+        assertEquals(OBReadConsentResponse5Data.StatusEnum.REVOKED, service.getConsentById(CONSENT_ID).getData().getStatus());
+        verify(repository, never()).deleteById(any());
+        verify(invalidationBus, times(1)).publish(CONSENT_ID);
+    }
+
+    @Test
+    void testDeleteConsentById_NotFound() {
+        // Arrange
+        when(repository.revokeById(eq(CONSENT_ID), any(OffsetDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> service.deleteConsentById(CONSENT_ID));
+        verify(invalidationBus, never()).publish(any());
+        verify(outboxRepository, never()).append(any(), any(), any());
+    }
+
+    @Test
+    void testDeleteConsentById_AppendsRevokedEventToOutbox() {
+        // Arrange
+        when(repository.revokeById(eq(CONSENT_ID), any(OffsetDateTime.class))).thenReturn(1);
+
+        // Act
+        service.deleteConsentById(CONSENT_ID);
+
+        // Assert
+        verify(outboxRepository, times(1)).append(eq(CONSENT_ID), eq("Revoked"), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void testUpdateConsentStatus_AuthorisesAwaitingConsent() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(
+                OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION, OffsetDateTime.now().plusDays(1), 3)));
+        when(repository.updateStatusIfVersion(eq(CONSENT_ID), eq("Authorised"), any(OffsetDateTime.class), eq(3L))).thenReturn(1);
+
+        // Act
+        OBReadConsentResponse5 updated = service.updateConsentStatus(CONSENT_ID,
+                statusRequest(OBWriteConsentStatusRequestData.StatusEnum.AUTHORISED));
+
+        // Assert
+        assertEquals(OBReadConsentResponse5Data.StatusEnum.AUTHORISED, updated.getData().getStatus());
+        verify(invalidationBus, times(1)).publish(CONSENT_ID);
+        verify(outboxRepository, times(1)).append(CONSENT_ID, "Authorised", updated.getData().getStatusUpdateDateTime());
+    }
+
+    @Test
+    void testUpdateConsentStatus_RetriesAfterLosingRaceAndRejectsInvalidTransition() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID))
+                .thenReturn(Optional.of(consentSnapshot(OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION, OffsetDateTime.now().plusDays(1), 0)))
+                .thenReturn(Optional.of(consentSnapshot(OBReadConsentResponse5Data.StatusEnum.REJECTED, OffsetDateTime.now().plusDays(1), 1)));
+        when(repository.updateStatusIfVersion(eq(CONSENT_ID), eq("Authorised"), any(OffsetDateTime.class), eq(0L))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ConflictException.class, () -> service.updateConsentStatus(CONSENT_ID,
+                statusRequest(OBWriteConsentStatusRequestData.StatusEnum.AUTHORISED)));
+        verify(repository, times(1)).updateStatusIfVersion(any(), any(), any(), anyLong());
+        verify(invalidationBus, never()).publish(any());
+    }
+
+    @Test
+    void testUpdateConsentStatus_RepeatedChangeDoesNotWrite() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(OffsetDateTime.now().plusDays(1))));
+
+        // Act
+        OBReadConsentResponse5 updated = service.updateConsentStatus(CONSENT_ID,
+                statusRequest(OBWriteConsentStatusRequestData.StatusEnum.AUTHORISED));
+
+        // Assert
+        assertEquals(OBReadConsentResponse5Data.StatusEnum.AUTHORISED, updated.getData().getStatus());
+        verify(repository, never()).updateStatusIfVersion(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testCreateConsents_ReportsInvalidItemsAndSavesTheOthers() {
+        // Arrange
+        OBWriteConsentBulkRequest request = new OBWriteConsentBulkRequest(new OBWriteConsentBulkRequestData(List.of(
+                createRequest(OffsetDateTime.now().plusDays(1)),
+                createRequest(OffsetDateTime.now().minusDays(1)),
+                createRequest(OffsetDateTime.now().plusDays(2)))));
+
+        // Act
+        OBConsentBulkResponse response = service.createConsents(request);
+
+        // Assert
+        List<OBConsentBulkResult> results = response.getData().getResults();
+        assertEquals(List.of(201, 400, 201), results.stream().map(OBConsentBulkResult::getStatus).toList());
+        assertEquals("UK.OBIE.Field.Invalid", results.get(1).getError().getErrorCode());
+        assertEquals(results.get(2).getConsentId(), results.get(2).getConsent().getData().getConsentId());
+        verify(repository, times(1)).saveAll(argThat(consents -> ((List<?>) consents).size() == 2));
+    }
+
+    @Test
+    void testCreateConsents_TooManyItems() {
+        // Arrange
+        OBWriteConsentBulkRequest request = new OBWriteConsentBulkRequest(new OBWriteConsentBulkRequestData(
+                Collections.nCopies(11, createRequest(OffsetDateTime.now().plusDays(1)))));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> service.createConsents(request));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testGetConsentsByIds_QueriesOnlyCacheMisses() {
+        // Arrange
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(consentSnapshot(OffsetDateTime.now().plusDays(1))));
+        service.getConsentById(CONSENT_ID);
+        ConsentSnapshot stored = new ConsentSnapshot("ACC-5678", OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION,
+                OffsetDateTime.now(), OffsetDateTime.now(), OffsetDateTime.now().plusDays(1),
+                List.of(OBReadConsentResponse5Data.PermissionsEnum.READ_PARTY), 0);
+        when(queryRepository.findSnapshotsByIds(anyCollection())).thenReturn(List.of(stored));
+
+        // Act
+        OBConsentBulkResponse response = service.getConsentsByIds(new OBReadConsentBulkRequest(
+                new OBReadConsentBulkRequestData(List.of(CONSENT_ID, "ACC-5678", "ACC-unknown"))));
+
+        // Assert
+        List<OBConsentBulkResult> results = response.getData().getResults();
+        assertEquals(List.of(200, 200, 404), results.stream().map(OBConsentBulkResult::getStatus).toList());
+        assertEquals(OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION, results.get(1).getConsent().getData().getStatus());
+        verify(queryRepository, times(1)).findSnapshotsByIds(argThat(ids -> ids.size() == 2 && !ids.contains(CONSENT_ID)));
+    }
+
+    @Test
+    void testValidateConsent_ChecksPermissionAndTagsTheVersion() {
+        // Arrange
+        ConsentSnapshot stored = consentSnapshot(OBReadConsentResponse5Data.StatusEnum.AUTHORISED,
+                OffsetDateTime.now().plusDays(1), 3);
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(stored));
+
+        // Act
+        ConsentValidity granted = service.validateConsent(CONSENT_ID, "ReadBalances");
+        ConsentValidity notGranted = service.validateConsent(CONSENT_ID, "ReadParty");
+
+        // Assert
+        assertTrue(granted.validation().getValid());
+        assertEquals(OBConsentValidation.StatusEnum.AUTHORISED, granted.validation().getStatus());
+        assertFalse(notGranted.validation().getValid());
+        assertEquals("3", granted.entityTag());
+        assertThrows(InvalidRequestException.class, () -> service.validateConsent(CONSENT_ID, "ReadEverything"));
+        verify(queryRepository, times(1)).findSnapshotById(CONSENT_ID);
+    }
+
+    @Test
+    void testValidateConsent_ExpiryChangesTheTagBeforeTheStatus() {
+        // Arrange
+        ConsentSnapshot stored = consentSnapshot(OffsetDateTime.now().minusHours(1));
+        when(queryRepository.findSnapshotById(CONSENT_ID)).thenReturn(Optional.of(stored));
+
+        // Act
+        ConsentValidity validity = service.validateConsent(CONSENT_ID, null);
+
+        // Assert
+        assertFalse(validity.validation().getValid());
+        assertEquals(OBConsentValidation.StatusEnum.AUTHORISED, validity.validation().getStatus());
+        assertEquals("0-expired", validity.entityTag());
+    }
+
+    @Test
+    void testValidateConsents_UnknownConsentIsNotValid() {
+        // Arrange
+        when(queryRepository.findSnapshotsByIds(anyCollection())).thenReturn(List.of(consentSnapshot(OffsetDateTime.now().plusDays(1))));
+
+        // Act
+        OBConsentValidationBulkResponse response = service.validateConsents(new OBConsentValidationBulkRequest(
+                new OBConsentValidationBulkRequestData(List.of(
+                        new OBConsentValidationCheck(CONSENT_ID).permission("ReadBalances"),
+                        new OBConsentValidationCheck(CONSENT_ID).permission("ReadParty"),
+                        new OBConsentValidationCheck("ACC-unknown")))));
+
+        // Assert
+        List<OBConsentValidation> results = response.getData().getResults();
+        assertEquals(List.of(true, false, false), results.stream().map(OBConsentValidation::getValid).toList());
+        assertNull(results.get(2).getStatus());
+        verify(queryRepository, times(1)).findSnapshotsByIds(argThat(ids -> ids.size() == 2));
+    }
+
+    private static OBWriteDomesticConsent4 createRequest(OffsetDateTime expirationDateTime) {
+        OBWriteDomesticConsent4Data requestData = new OBWriteDomesticConsent4Data();
+        requestData.setPermissions(List.of(OBWriteDomesticConsent4Data.PermissionsEnum.READ_BALANCES));
+        requestData.setExpirationDateTime(expirationDateTime);
+        OBWriteDomesticConsent4 request = new OBWriteDomesticConsent4();
+        request.setData(requestData);
+        return request;
+    }
+
+    private static ConsentSnapshot consentSnapshot(OffsetDateTime expirationDateTime) {
+        return consentSnapshot(OBReadConsentResponse5Data.StatusEnum.AUTHORISED, expirationDateTime, 0);
+    }
+
+    private static ConsentSnapshot consentSnapshot(OBReadConsentResponse5Data.StatusEnum status,
+                                                   OffsetDateTime expirationDateTime, long version) {
+        return new ConsentSnapshot(CONSENT_ID, status,
+                OffsetDateTime.now().minusDays(2), OffsetDateTime.now().minusDays(2), expirationDateTime,
+                List.of(OBReadConsentResponse5Data.PermissionsEnum.READ_BALANCES), version);
+    }
+
+    private static OBWriteConsentStatusRequest statusRequest(OBWriteConsentStatusRequestData.StatusEnum status) {
+        return new OBWriteConsentStatusRequest(new OBWriteConsentStatusRequestData(status));
+    }
+}
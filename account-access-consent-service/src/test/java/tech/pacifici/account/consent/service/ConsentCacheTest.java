@@ -0,0 +1,118 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.pacifici.account.consent.config.ConsentCacheProperties;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.model.OBReadConsentResponse5Data;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ConsentCache read-through loading and its writes after commit.
+ */
+class ConsentCacheTest {
+
+    private static final String CONSENT_ID = "ACC-1";
+
+    private ConsentCache consentCache;
+    private ConsentSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        consentCache = new ConsentCache(new ConsentCacheProperties(100, Duration.ofMinutes(5)), new SimpleMeterRegistry());
+        OffsetDateTime now = OffsetDateTime.now();
+        snapshot = new ConsentSnapshot(CONSENT_ID, OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION,
+                now, now, now.plusDays(1), List.of(OBReadConsentResponse5Data.PermissionsEnum.READ_BALANCES), 0);
+    }
+
+    @Test
+    void testGet_LoadsOnceThenServesFromCache() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        consentCache.get(CONSENT_ID, id -> {
+            loads.incrementAndGet();
+            return snapshot;
+        });
+        ConsentSnapshot result = consentCache.get(CONSENT_ID, id -> {
+            loads.incrementAndGet();
+            return snapshot;
+        });
+
+        // Assert
+        assertSame(snapshot, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_EvictedWhileLoadingIsNotCached() {
+        // Act
+        ConsentSnapshot result = consentCache.get(CONSENT_ID, id -> {
+            consentCache.evict(id);
+            return snapshot;
+        });
+
+        // Assert
+        assertSame(snapshot, result);
+        assertNull(consentCache.get(CONSENT_ID, id -> null));
+    }
+
+    @Test
+    void testGet_FailedLoadIsNotCached() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> consentCache.get(CONSENT_ID, id -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        assertSame(snapshot, consentCache.get(CONSENT_ID, id -> snapshot));
+    }
+
+    @Test
+    void testPutAllAfterCommit_CachesOnlyOnceCommitted() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            consentCache.putAllAfterCommit(List.of(snapshot));
+            boolean cachedBeforeCommit = !consentCache.getAllPresent(List.of(CONSENT_ID)).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Assert
+            assertFalse(cachedBeforeCommit);
+            assertSame(snapshot, consentCache.getAllPresent(List.of(CONSENT_ID)).get(CONSENT_ID));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testPutAllAfterCommit_RolledBackIsNotCached() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            consentCache.putAllAfterCommit(List.of(snapshot));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Assert
+            assertTrue(consentCache.getAllPresent(List.of(CONSENT_ID)).isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
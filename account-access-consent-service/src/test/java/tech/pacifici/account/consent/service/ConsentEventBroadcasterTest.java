@@ -0,0 +1,88 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.pacifici.account.consent.config.ConsentOutboxProperties;
+import tech.pacifici.account.consent.domain.ConsentEvent;
+import tech.pacifici.account.consent.domain.DeliveredConsentEvent;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+import tech.pacifici.model.OBReadConsentResponse5Data;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ConsentEventBroadcaster reading of the delivered consent events.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentEventBroadcasterTest {
+
+    @Mock
+    private ConsentOutboxRepository outboxRepository;
+
+    private ConsentEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new ConsentEventBroadcaster(
+                new ConsentOutboxProperties(true, Duration.ofMillis(500), 2, 3, Duration.ofHours(24), 10, Duration.ofMinutes(5)),
+                outboxRepository, new ConsentMapperImpl(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testPublish_ResumesAfterTheLastEventId() {
+        // Arrange
+        broadcaster.subscribe(5L);
+        when(outboxRepository.findDeliveredAfter(5, 2)).thenReturn(List.of(event(6), event(7)));
+        when(outboxRepository.findDeliveredAfter(7, 2)).thenReturn(List.of());
+
+        // Act
+        broadcaster.publish();
+        broadcaster.publish();
+
+        // Assert
+        verify(outboxRepository, never()).findLastPosition();
+        // A full batch is followed by the next one in the same run, the next run starts after the last event sent.
+        verify(outboxRepository, times(2)).findDeliveredAfter(7, 2);
+    }
+
+    @Test
+    void testPublish_NewSubscriberStartsAtTheLastPosition() {
+        // Arrange
+        when(outboxRepository.findLastPosition()).thenReturn(42L);
+        broadcaster.subscribe(null);
+        when(outboxRepository.findDeliveredAfter(42, 2)).thenReturn(List.of());
+
+        // Act
+        broadcaster.publish();
+
+        // Assert
+        verify(outboxRepository).findDeliveredAfter(42, 2);
+    }
+
+    @Test
+    void testPublish_DoesNotReadWithoutSubscribers() {
+        // Act
+        broadcaster.publish();
+
+        // Assert
+        verify(outboxRepository, never()).findDeliveredAfter(anyLong(), anyInt());
+    }
+
+    private static DeliveredConsentEvent event(long position) {
+        return new DeliveredConsentEvent(position, new ConsentEvent(position + 100, "ACC-" + position,
+                OBReadConsentResponse5Data.StatusEnum.AUTHORISED, OffsetDateTime.now()));
+    }
+}
@@ -0,0 +1,110 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.pacifici.account.consent.config.ConsentExpiryProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentExpiryRepository;
+import tech.pacifici.account.consent.repository.ConsentExpiryRepository.SweptConsent;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ConsentExpirySweeper batching.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentExpirySweeperTest {
+
+    @Mock
+    private ConsentExpiryRepository expiryRepository;
+
+    @Mock
+    private ConsentInvalidationBus invalidationBus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsentExpirySweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ConsentExpirySweeper(
+                new ConsentExpiryProperties(true, Duration.ofSeconds(30), 2, 3, false, Duration.ofDays(90)),
+                expiryRepository, invalidationBus, meterRegistry);
+    }
+
+    @Test
+    void testExpire_ContinuesAfterLastRowUntilBatchIsNotFull() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        SweptConsent first = new SweptConsent("ACC-1", now.minusHours(2));
+        SweptConsent second = new SweptConsent("ACC-2", now.minusHours(1));
+        SweptConsent third = new SweptConsent("ACC-3", now.minusMinutes(1));
+        when(expiryRepository.expireBatch(eq(now), isNull(), eq(2))).thenReturn(List.of(first, second));
+        when(expiryRepository.expireBatch(now, second, 2)).thenReturn(List.of(third));
+
+        // Act
+        int expired = sweeper.expire(now);
+
+        // Assert
+        assertEquals(3, expired);
+        verify(invalidationBus).publishAll(List.of("ACC-1", "ACC-2"));
+        verify(invalidationBus).publishAll(List.of("ACC-3"));
+        assertEquals(3.0, meterRegistry.get("consent.expiry.expired").counter().count());
+    }
+
+    @Test
+    void testExpire_StopsAfterMaxBatches() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.now();
+        List<SweptConsent> fullBatch = List.of(
+                new SweptConsent("ACC-1", now.minusHours(1)), new SweptConsent("ACC-2", now.minusHours(1)));
+        when(expiryRepository.expireBatch(eq(now), any(), eq(2))).thenReturn(fullBatch);
+
+        // Act
+        int expired = sweeper.expire(now);
+
+        // Assert
+        assertEquals(6, expired);
+    }
+
+    @Test
+    void testSweep_UpdatesLagGauge() {
+        // Arrange
+        when(expiryRepository.expireBatch(any(), isNull(), eq(2))).thenReturn(List.of());
+        when(expiryRepository.findOldestDueExpiration(any())).thenReturn(OffsetDateTime.now().minusMinutes(5));
+
+        // Act
+        sweeper.sweep();
+
+        // Assert
+        assertTrue(meterRegistry.get("consent.expiry.lag").gauge().value() >= 300.0);
+        verify(expiryRepository, never()).purgeBatch(any(), any(), eq(2));
+    }
+
+    @Test
+    void testSweep_SkippedWhenAdmissionLimiterIsFull() {
+        // Arrange
+        when(expiryRepository.expireBatch(any(), isNull(), eq(2)))
+                .thenThrow(new TooManyRequestsException("Database admission limit reached"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> sweeper.sweep());
+        verify(invalidationBus, never()).publishAll(any());
+    }
+}
@@ -0,0 +1,134 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import tech.pacifici.account.consent.config.ConsentGroupCommitProperties;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.repository.ConsentBatchInsertRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for the ConsentGroupCommitter batching.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentGroupCommitterTest {
+
+    @Mock
+    private ConsentBatchInsertRepository insertRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsentGroupCommitter groupCommitter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // A window long enough for the test threads to join the same batch, which is flushed once full.
+        groupCommitter = new ConsentGroupCommitter(
+                new ConsentGroupCommitProperties(true, Duration.ofSeconds(10), 3, 100), insertRepository, meterRegistry);
+        groupCommitter.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        groupCommitter.stop();
+    }
+
+    @Test
+    void testInsert_ConcurrentCreationsShareOneBatch() {
+        // Arrange
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            List<CompletableFuture<Void>> inserts = List.of(
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-1")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-2")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-3")), executor));
+
+            // Act
+            CompletableFuture.allOf(inserts.toArray(CompletableFuture[]::new)).join();
+        }
+
+        // Assert
+        verify(insertRepository, times(1)).insertAll(anyList());
+        assertEquals(3.0, meterRegistry.get("consent.group-commit.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testInsert_FailedBatchFailsEveryCaller() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(insertRepository).insertAll(anyList());
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            List<CompletableFuture<Void>> inserts = List.of(
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-1")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-2")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-3")), executor));
+
+            // Act & Assert
+            for (CompletableFuture<Void> insert : inserts) {
+                assertThrows(DataIntegrityViolationException.class, () -> {
+                    try {
+                        insert.join();
+                    } catch (RuntimeException ex) {
+                        throw ex.getCause();
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    void testInsert_InterruptedFlusherFailsQueuedCreations() {
+        // Arrange
+        AtomicReference<CompletableFuture<Void>> queued = new AtomicReference<>();
+        doAnswer(invocation -> {
+            // Queue a fourth creation while the first batch is written, then interrupt the flusher.
+            queued.set(CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-4"))));
+            while (meterRegistry.get("consent.group-commit.queue.size").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+            Thread.currentThread().interrupt();
+            return null;
+        }).when(insertRepository).insertAll(anyList());
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            List<CompletableFuture<Void>> inserts = List.of(
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-1")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-2")), executor),
+                    CompletableFuture.runAsync(() -> groupCommitter.insert(consent("ACC-3")), executor));
+            CompletableFuture.allOf(inserts.toArray(CompletableFuture[]::new)).join();
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            try {
+                queued.get().join();
+            } catch (RuntimeException ex) {
+                throw ex.getCause();
+            }
+        });
+        verify(insertRepository, times(1)).insertAll(anyList());
+    }
+
+    private static AccountAccessConsent consent(String consentId) {
+        AccountAccessConsent consent = new AccountAccessConsent();
+        consent.setConsentId(consentId);
+        return consent;
+    }
+}
@@ -0,0 +1,133 @@
+package tech.pacifici.account.consent.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.pacifici.account.consent.config.ConsentListProperties;
+import tech.pacifici.account.consent.domain.ConsentListCursor;
+import tech.pacifici.account.consent.domain.ConsentListQuery;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.account.consent.domain.InvalidRequestException;
+import tech.pacifici.account.consent.repository.ConsentQueryRepository;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Unit tests for the ConsentListService validation and page reading.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentListServiceTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.of(2025, 7, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private ConsentQueryRepository queryRepository;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ConsentListService listService;
+
+    @BeforeEach
+    void setUp() {
+        listService = new ConsentListService(queryRepository, new ConsentMapperImpl(),
+                new ConsentListProperties(2, 10, 100), objectMapper);
+    }
+
+    @Test
+    void testReadPage_FullPageHasNextCursor() throws Exception {
+        // Arrange
+        ConsentListQuery query = listService.prepareQuery(null, null, null, null, null, null);
+        streamRows(query, snapshot("ACC-1", 0), snapshot("ACC-2", 1), snapshot("ACC-3", 2));
+
+        // Act
+        byte[] body = listService.readPage(query);
+
+        // Assert
+        JsonNode page = objectMapper.readTree(body);
+        assertEquals(2, page.at("/Data/Consents").size());
+        assertEquals("ACC-2", page.at("/Data/Consents/1/Data/ConsentId").asText());
+        ConsentListCursor cursor = ConsentListCursor.decode(page.at("/Meta/NextCursor").asText());
+        assertFalse(cursor.byExpiration());
+        assertEquals("ACC-2", cursor.consentId());
+        assertTrue(cursor.position().isEqual(CREATED.plusSeconds(1)));
+    }
+
+    @Test
+    void testReadPage_LastPageHasNoCursor() throws Exception {
+        // Arrange
+        ConsentListQuery query = listService.prepareQuery(null, null, null, null, null, null);
+        streamRows(query, snapshot("ACC-1", 0));
+
+        // Act
+        byte[] body = listService.readPage(query);
+
+        // Assert
+        JsonNode page = objectMapper.readTree(body);
+        assertEquals(1, page.at("/Data/Consents").size());
+        assertTrue(page.at("/Meta/NextCursor").isMissingNode());
+    }
+
+    @Test
+    void testPrepareQuery_InvalidParameters() {
+        // Arrange
+        String creationCursor = new ConsentListCursor(false, CREATED, "ACC-1").encode();
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> listService.prepareQuery("Unknown", null, null, null, null, null));
+        assertThrows(InvalidRequestException.class,
+                () -> listService.prepareQuery(null, null, null, null, 11, null));
+        assertThrows(InvalidRequestException.class,
+                () -> listService.prepareQuery(null, null, CREATED, CREATED, null, null));
+        assertThrows(InvalidRequestException.class,
+                () -> listService.prepareQuery(null, null, null, null, null, "not a cursor"));
+        assertThrows(InvalidRequestException.class,
+                () -> listService.prepareQuery(null, null, CREATED, null, null, creationCursor));
+    }
+
+    @Test
+    void testPrepareQuery_ParsesFilters() {
+        // Act
+        ConsentListQuery query = listService.prepareQuery("Authorised", "ReadBalances", CREATED, null, 5, null);
+
+        // Assert
+        assertEquals(StatusEnum.AUTHORISED, query.status());
+        assertEquals(PermissionsEnum.READ_BALANCES, query.permission());
+        assertEquals(5, query.pageSize());
+        assertTrue(query.byExpiration());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamRows(ConsentListQuery query, ConsentSnapshot... rows) {
+        doAnswer(invocation -> {
+            Consumer<ConsentSnapshot> consumer = invocation.getArgument(3);
+            for (ConsentSnapshot row : rows) {
+                consumer.accept(row);
+            }
+            return null;
+        }).when(queryRepository).streamSnapshots(eq(query), eq(query.pageSize() + 1), eq(100), any(Consumer.class));
+    }
+
+    private static ConsentSnapshot snapshot(String consentId, int second) {
+        OffsetDateTime created = CREATED.plusSeconds(second);
+        return new ConsentSnapshot(consentId, StatusEnum.AWAITING_AUTHORISATION, created, created,
+                created.plusDays(90), List.of(PermissionsEnum.READ_ACCOUNTS_BASIC), 0);
+    }
+}
@@ -0,0 +1,76 @@
+package tech.pacifici.account.consent.service;
+
+import org.junit.jupiter.api.Test;
+import tech.pacifici.account.consent.domain.AccountAccessConsent;
+import tech.pacifici.account.consent.domain.ConsentSnapshot;
+import tech.pacifici.model.OBReadConsentResponse5;
+import tech.pacifici.model.OBReadConsentResponse5Data.PermissionsEnum;
+import tech.pacifici.model.OBReadConsentResponse5Data.StatusEnum;
+import tech.pacifici.model.OBWriteDomesticConsent4;
+import tech.pacifici.model.OBWriteDomesticConsent4Data;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the MapStruct generated ConsentMapper.
+ */
+class ConsentMapperTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 7, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final ConsentMapper consentMapper = new ConsentMapperImpl();
+
+    @Test
+    void testToEntity_NewConsentAwaitingAuthorisation() {
+        // Arrange
+        OBWriteDomesticConsent4Data data = new OBWriteDomesticConsent4Data();
+        data.setPermissions(List.of(OBWriteDomesticConsent4Data.PermissionsEnum.READ_BALANCES,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_ACCOUNTS_BASIC,
+                OBWriteDomesticConsent4Data.PermissionsEnum.READ_BALANCES));
+        data.setExpirationDateTime(NOW.plusDays(90));
+        OBWriteDomesticConsent4 request = new OBWriteDomesticConsent4();
+        request.setData(data);
+
+        // Act
+        AccountAccessConsent entity = consentMapper.toEntity(request, "ACC-1", NOW, "{}");
+
+        // Assert
+        assertEquals("ACC-1", entity.getConsentId());
+        assertEquals("AwaitingAuthorisation", entity.getStatus());
+        assertEquals(NOW, entity.getCreationDateTime());
+        assertEquals(NOW, entity.getStatusUpdateDateTime());
+        assertEquals(NOW.plusDays(90), entity.getExpirationDateTime());
+        assertEquals(EnumSet.of(PermissionsEnum.READ_ACCOUNTS_BASIC, PermissionsEnum.READ_BALANCES), entity.getPermissions());
+        assertEquals("{}", entity.getRequestBody());
+    }
+
+    @Test
+    void testToResponse_FromEntitySnapshot() {
+        // Arrange
+        AccountAccessConsent entity = new AccountAccessConsent();
+        entity.setConsentId("ACC-1");
+        entity.setStatus("Authorised");
+        entity.setCreationDateTime(NOW);
+        entity.setStatusUpdateDateTime(NOW.plusMinutes(1));
+        entity.setPermissions(EnumSet.of(PermissionsEnum.READ_BALANCES));
+        entity.setVersion(2);
+
+        // Act
+        ConsentSnapshot snapshot = consentMapper.toSnapshot(entity);
+        OBReadConsentResponse5 response = consentMapper.toResponse(snapshot);
+
+        // Assert
+        assertEquals(new ConsentSnapshot("ACC-1", StatusEnum.AUTHORISED, NOW, NOW.plusMinutes(1), null,
+                List.of(PermissionsEnum.READ_BALANCES), 2), snapshot);
+        assertEquals("ACC-1", response.getData().getConsentId());
+        assertEquals(StatusEnum.AUTHORISED, response.getData().getStatus());
+        assertEquals(NOW.plusMinutes(1), response.getData().getStatusUpdateDateTime());
+        assertSame(snapshot.permissions(), response.getData().getPermissions());
+    }
+}
@@ -0,0 +1,148 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.pacifici.account.consent.config.ConsentOutboxProperties;
+import tech.pacifici.account.consent.domain.ConsentEvent;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentOutboxRepository;
+import tech.pacifici.model.OBReadConsentResponse5Data;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ConsentOutboxRelay batching and delivery guarantees.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentOutboxRelayTest {
+
+    @Mock
+    private ConsentOutboxRepository outboxRepository;
+
+    @Mock
+    private ConsentEventSink sink;
+
+    @Mock
+    private ObjectProvider<ConsentEventSink> sinks;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsentOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(sinks.getIfAvailable(ArgumentMatchers.<Supplier<ConsentEventSink>>any())).thenReturn(sink);
+        relay = new ConsentOutboxRelay(
+                new ConsentOutboxProperties(true, Duration.ofMillis(500), 2, 3, Duration.ofHours(24), 10, Duration.ofMinutes(5)),
+                outboxRepository, new TransactionTemplate(transactionManager), sinks, meterRegistry);
+    }
+
+    @Test
+    void testRelayBatches_DeliversThenMarksDeliveredUntilOutboxIsDrained() {
+        // Arrange
+        List<ConsentEvent> first = List.of(event(1, "ACC-1", OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION),
+                event(2, "ACC-2", OBReadConsentResponse5Data.StatusEnum.AWAITING_AUTHORISATION));
+        // The next event of ACC-1 only becomes eligible once the first one is marked delivered.
+        List<ConsentEvent> second = List.of(event(3, "ACC-1", OBReadConsentResponse5Data.StatusEnum.AUTHORISED));
+        when(outboxRepository.lockBatch(2)).thenReturn(first).thenReturn(second).thenReturn(List.of());
+
+        // Act
+        int relayed = relay.relayBatches();
+
+        // Assert
+        assertEquals(3, relayed);
+        verify(sink).deliver(first);
+        verify(outboxRepository).markDelivered(first);
+        verify(sink).deliver(second);
+        verify(outboxRepository).markDelivered(second);
+        assertEquals(3.0, meterRegistry.get("consent.outbox.relayed").counter().count());
+    }
+
+    @Test
+    void testRelayBatches_DeliversOutsideTheTransactions() {
+        // Arrange
+        List<ConsentEvent> events = List.of(event(1, "ACC-1", OBReadConsentResponse5Data.StatusEnum.AUTHORISED));
+        when(outboxRepository.lockBatch(2)).thenReturn(events).thenReturn(List.of());
+
+        // Act
+        relay.relayBatches();
+
+        // Assert
+        InOrder order = inOrder(outboxRepository, transactionManager, sink);
+        order.verify(outboxRepository).lockBatch(2);
+        order.verify(transactionManager).commit(any());
+        order.verify(sink).deliver(events);
+        order.verify(outboxRepository).markDelivered(events);
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testRelay_PurgesDeliveredEventsBatchByBatch() {
+        // Arrange
+        when(outboxRepository.lockBatch(2)).thenReturn(List.of());
+        when(outboxRepository.deleteDeliveredBefore(any(OffsetDateTime.class), eq(2))).thenReturn(2).thenReturn(1);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(outboxRepository, times(2)).deleteDeliveredBefore(any(OffsetDateTime.class), eq(2));
+    }
+
+    @Test
+    void testRelay_SkipsRunRejectedByTheAdmissionLimiter() {
+        // Arrange
+        when(outboxRepository.lockBatch(2)).thenThrow(new CannotCreateTransactionException("Could not open connection",
+                new TooManyRequestsException("All database connections are in use, retry later.")));
+
+        // Act & Assert
+        assertDoesNotThrow(relay::relay);
+        verify(sink, never()).deliver(any());
+        assertEquals(0.0, meterRegistry.get("consent.outbox.failures").counter().count());
+    }
+
+    @Test
+    void testRelay_KeepsEventsWhenDeliveryFails() {
+        // Arrange
+        List<ConsentEvent> events = List.of(event(1, "ACC-1", OBReadConsentResponse5Data.StatusEnum.REVOKED));
+        when(outboxRepository.lockBatch(2)).thenReturn(events);
+        doThrow(new IllegalStateException("Broker unavailable")).when(sink).deliver(events);
+
+        // Act & Assert
+        assertDoesNotThrow(relay::relay);
+        verify(outboxRepository, never()).markDelivered(any());
+        assertEquals(1.0, meterRegistry.get("consent.outbox.failures").counter().count());
+        assertEquals(0.0, meterRegistry.get("consent.outbox.relayed").counter().count());
+    }
+
+    private static ConsentEvent event(long eventId, String consentId, OBReadConsentResponse5Data.StatusEnum status) {
+        return new ConsentEvent(eventId, consentId, status, OffsetDateTime.now());
+    }
+}
@@ -0,0 +1,114 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import tech.pacifici.account.consent.config.ConsentPartitionProperties;
+import tech.pacifici.account.consent.domain.TooManyRequestsException;
+import tech.pacifici.account.consent.repository.ConsentPartitionRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ConsentPartitionMaintainer partition creation, coverage and retention.
+ */
+@ExtendWith(MockitoExtension.class)
+class ConsentPartitionMaintainerTest {
+
+    private static final Duration LOCK_TIMEOUT = Duration.ofSeconds(2);
+
+    @Mock
+    private ConsentPartitionRepository partitionRepository;
+
+    private ConsentPartitionMaintainer maintainer;
+
+    @BeforeEach
+    void setUp() {
+        maintainer = new ConsentPartitionMaintainer(
+                new ConsentPartitionProperties(true, Duration.ofHours(1), 2, true, Duration.ofDays(90), LOCK_TIMEOUT),
+                partitionRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testCreatePartitions_CreatesMissingMonthsAhead() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.of(2025, 7, 31, 23, 30, 0, 0, ZoneOffset.UTC);
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2025, 7)));
+
+        // Act
+        int created = maintainer.createPartitions(now);
+
+        // Assert
+        assertEquals(2, created);
+        verify(partitionRepository).createPartition(YearMonth.of(2025, 8), LOCK_TIMEOUT);
+        verify(partitionRepository).createPartition(YearMonth.of(2025, 9), LOCK_TIMEOUT);
+        verify(partitionRepository, never()).createPartition(YearMonth.of(2025, 7), LOCK_TIMEOUT);
+        assertEquals(2.0, maintainer.monthsAhead(YearMonth.of(2025, 7)));
+        assertEquals(-1.0, maintainer.monthsAhead(YearMonth.of(2025, 10)));
+    }
+
+    @Test
+    void testCreatePartitions_CoverageStopsAtTheFailedMonth() {
+        // Arrange
+        OffsetDateTime now = OffsetDateTime.of(2025, 7, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(partitionRepository.findPartitionMonths()).thenReturn(List.of(YearMonth.of(2025, 7)));
+        doThrow(new CannotAcquireLockException("lock timeout"))
+                .when(partitionRepository).createPartition(YearMonth.of(2025, 8), LOCK_TIMEOUT);
+
+        // Act & Assert
+        assertThrows(CannotAcquireLockException.class, () -> maintainer.createPartitions(now));
+        assertEquals(0.0, maintainer.monthsAhead(YearMonth.of(2025, 7)));
+    }
+
+    @Test
+    void testMaintain_SkipsRunRejectedByTheAdmissionLimiter() {
+        // Arrange
+        when(partitionRepository.findPartitionMonths()).thenThrow(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction", new TooManyRequestsException("busy")));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> maintainer.maintain());
+        verify(partitionRepository, never()).createPartition(any(), any());
+    }
+
+    @Test
+    void testDropPartitions_KeepsMonthsWithRetainedConsents() {
+        // Arrange
+        OffsetDateTime cutoff = OffsetDateTime.of(2025, 4, 15, 0, 0, 0, 0, ZoneOffset.UTC);
+        when(partitionRepository.findPartitionMonths()).thenReturn(
+                List.of(YearMonth.of(2025, 3), YearMonth.of(2025, 1), YearMonth.of(2025, 2), YearMonth.of(2025, 4)));
+        when(partitionRepository.hasRetainedConsents(YearMonth.of(2025, 1), cutoff)).thenReturn(false);
+        when(partitionRepository.hasRetainedConsents(YearMonth.of(2025, 2), cutoff)).thenReturn(true);
+        when(partitionRepository.hasRetainedConsents(YearMonth.of(2025, 3), cutoff)).thenReturn(false);
+
+        // Act
+        int dropped = maintainer.dropPartitions(cutoff);
+
+        // Assert
+        assertEquals(2, dropped);
+        verify(partitionRepository).dropPartition(YearMonth.of(2025, 1), LOCK_TIMEOUT);
+        verify(partitionRepository).dropPartition(YearMonth.of(2025, 3), LOCK_TIMEOUT);
+        verify(partitionRepository, never()).dropPartition(eq(YearMonth.of(2025, 2)), any());
+        // April is not over before the cutoff, its consents may still be retained.
+        verify(partitionRepository, never()).hasRetainedConsents(eq(YearMonth.of(2025, 4)), any());
+    }
+}
@@ -0,0 +1,75 @@
+package tech.pacifici.account.consent.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tech.pacifici.account.consent.config.ConsentIdempotencyProperties;
+import tech.pacifici.account.consent.domain.IdempotencyRecord;
+import tech.pacifici.account.consent.repository.IdempotencyKeyRepository;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the IdempotencyStore memory tier.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(24);
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new IdempotencyStore(new ConsentIdempotencyProperties(TIME_TO_LIVE, 100, Duration.ofMinutes(5), 100),
+                repository, meterRegistry);
+    }
+
+    @Test
+    void testFind_ServesKeyFoundInTheTableFromMemory() {
+        // Arrange
+        IdempotencyRecord record = new IdempotencyRecord("0".repeat(64), "ACC-1", OffsetDateTime.now());
+        when(repository.findByKey(eq("key-1"), any(OffsetDateTime.class))).thenReturn(Optional.of(record));
+
+        // Act
+        store.find("key-1");
+        IdempotencyRecord found = store.find("key-1");
+
+        // Assert
+        assertEquals(record, found);
+        verify(repository, times(1)).findByKey(eq("key-1"), any(OffsetDateTime.class));
+        assertEquals(1.0, meterRegistry.get("consent.idempotency.lookups").tag("result", "memory").counter().count());
+    }
+
+    @Test
+    void testFind_KeyAtTheEndOfItsTimeToLiveIsNotKeptInMemory() {
+        // Arrange
+        IdempotencyRecord record = new IdempotencyRecord("0".repeat(64), "ACC-1", OffsetDateTime.now().minus(TIME_TO_LIVE));
+        when(repository.findByKey(eq("key-1"), any(OffsetDateTime.class))).thenReturn(Optional.of(record));
+
+        // Act
+        store.find("key-1");
+        store.find("key-1");
+
+        // Assert
+        verify(repository, times(2)).findByKey(eq("key-1"), any(OffsetDateTime.class));
+        assertEquals(0.0, meterRegistry.get("consent.idempotency.lookups").tag("result", "memory").counter().count());
+    }
+}